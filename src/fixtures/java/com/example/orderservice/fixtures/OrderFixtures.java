@@ -0,0 +1,106 @@
+package com.example.orderservice.fixtures;
+
+import com.example.orderservice.model.Category;
+import com.example.orderservice.model.CustomerInfo;
+import com.example.orderservice.model.DeliveryInfo;
+import com.example.orderservice.model.Manufacturer;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.Product;
+import com.example.orderservice.model.Review;
+import com.example.orderservice.model.ShoppingCart;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic orders shaped like real shopping carts: every product carries a manufacturer, a few categories and
+ * a handful of reviews, which make up most of the payload. Shared by the benchmarks and the load test.
+ */
+public final class OrderFixtures {
+
+    public static final int REVIEWS_PER_PRODUCT = 5;
+
+    public static final CustomerInfo CUSTOMER_INFO = CustomerInfo.builder()
+            .firstName("Joe")
+            .lastName("Doe")
+            .email("joedoe@test.com")
+            .phoneNumber("555666777")
+            .build();
+
+    public static final DeliveryInfo DELIVERY_INFO = DeliveryInfo.builder()
+            .address("Street 1")
+            .city("London")
+            .postalCode("33333")
+            .country("United Kingdom")
+            .build();
+
+    private OrderFixtures() {
+    }
+
+    public static ShoppingCart shoppingCart(final int products) {
+        return ShoppingCart.builder()
+                .id(UUID.randomUUID())
+                .products(products(products, new Random(products)))
+                .build();
+    }
+
+    /**
+     * Order in the shape accepted by the upload endpoint, with the full product graph.
+     */
+    public static Order uploadedOrder(final int products, final Random random) {
+        return Order.builder()
+                .products(products(products, random))
+                .customerInfo(CUSTOMER_INFO)
+                .deliveryInfo(DELIVERY_INFO)
+                .build();
+    }
+
+    public static byte[] uploadFile(final ObjectMapper objectMapper, final int orders, final int productsPerOrder) throws JsonProcessingException {
+        Random random = new Random(orders);
+        List<Order> uploaded = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            uploaded.add(uploadedOrder(productsPerOrder, random));
+        }
+        return objectMapper.writeValueAsBytes(uploaded);
+    }
+
+    public static List<Product> products(final int count, final Random random) {
+        Category[] categories = Category.values();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime createdAt = LocalDateTime.of(2023, 1, 1, 0, 0).plusMinutes(random.nextInt(500_000));
+            List<Review> reviews = new ArrayList<>(REVIEWS_PER_PRODUCT);
+            for (int r = 0; r < REVIEWS_PER_PRODUCT; r++) {
+                reviews.add(Review.builder()
+                        .reviewerName("Reviewer " + random.nextInt(10_000))
+                        .comment("Solid product, arrived on time and works as described. Would order again " + r)
+                        .rating(1 + random.nextInt(5))
+                        .reviewDate(createdAt.plusDays(r))
+                        .build());
+            }
+            products.add(Product.builder()
+                    .id(new UUID(random.nextLong(), random.nextLong()))
+                    .name("Product " + i)
+                    .description("In congue. Etiam justo. Etiam pretium iaculis justo. In hac habitasse platea dictumst.")
+                    .price(BigDecimal.valueOf(100 + random.nextInt(1_000_000), 2))
+                    .manufacturer(Manufacturer.builder()
+                            .id(new UUID(random.nextLong(), random.nextLong()))
+                            .name("Manufacturer " + random.nextInt(100))
+                            .address(random.nextInt(100) + " Clemons Junction")
+                            .contact("contact" + random.nextInt(100) + "@example.com")
+                            .build())
+                    .categories(List.of(categories[random.nextInt(categories.length)], categories[random.nextInt(categories.length)]))
+                    .createdAt(createdAt)
+                    .updatedAt(createdAt.plusDays(1))
+                    .reviews(reviews)
+                    .build());
+        }
+        return products;
+    }
+}
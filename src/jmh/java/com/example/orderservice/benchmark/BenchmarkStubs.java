@@ -0,0 +1,83 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.client.ShoppingClient;
+import com.example.orderservice.client.ShoppingConfig;
+import com.example.orderservice.model.BulkInsertResult;
+import com.example.orderservice.model.ShoppingCart;
+import com.example.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Hand-written collaborators that answer immediately. Unlike mocks they add no argument matching or invocation
+ * recording to the measured path.
+ */
+final class BenchmarkStubs {
+
+    private BenchmarkStubs() {
+    }
+
+    /**
+     * Repository acknowledging saves and bulk inserts without storing anything; any other call fails.
+     */
+    static OrderRepository orderRepository() {
+        return (OrderRepository) Proxy.newProxyInstance(OrderRepository.class.getClassLoader(), new Class<?>[]{OrderRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> Mono.just(args[0]);
+                    case "bulkInsert" -> Mono.just(BulkInsertResult.of(((List<?>) args[0]).size()));
+                    case "toString" -> "OrderRepository stub";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static ShoppingClient shoppingClient(final ShoppingCart shoppingCart, final MeterRegistry meterRegistry) {
+        Mono<ShoppingCart> cart = Mono.just(shoppingCart);
+        return new ShoppingClient(WebClient.builder(), new ShoppingConfig(), meterRegistry) {
+            @Override
+            public Mono<ShoppingCart> getShoppingCart(final UUID cartId) {
+                return cart;
+            }
+        };
+    }
+
+    static FilePart filePart(final Supplier<Flux<DataBuffer>> content) {
+        HttpHeaders headers = new HttpHeaders();
+        return new FilePart() {
+            @Override
+            public String filename() {
+                return "orders.json";
+            }
+
+            @Override
+            public Mono<Void> transferTo(final Path dest) {
+                return Mono.error(new UnsupportedOperationException("transferTo"));
+            }
+
+            @Override
+            public String name() {
+                return "file";
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public Flux<DataBuffer> content() {
+                return content.get();
+            }
+        };
+    }
+}
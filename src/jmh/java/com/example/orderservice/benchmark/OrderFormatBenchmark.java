@@ -0,0 +1,79 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.config.AppConfig;
+import com.example.orderservice.fixtures.OrderFixtures;
+import com.example.orderservice.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode time of an order in the wire formats offered by the API. The encoded size of every combination
+ * is reported as the {@code bytes} secondary result of {@link #encode}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderFormatBenchmark {
+
+    @Param({"json", "smile"})
+    private String format;
+
+    @Param({"1", "10", "50"})
+    private int products;
+
+    private ObjectMapper objectMapper;
+    private Order order;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper jsonMapper = new AppConfig().objectMapper();
+        objectMapper = "smile".equals(format) ? AppConfig.smileMapper(jsonMapper) : jsonMapper;
+        order = OrderFixtures.uploadedOrder(products, new Random(products));
+        order.setOrderId(UUID.randomUUID());
+        order.setInsertDateTime(LocalDateTime.now());
+        encoded = objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] encode(final EncodedSize encodedSize) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(order);
+        encodedSize.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Order decode() throws IOException {
+        return objectMapper.readValue(encoded, Order.class);
+    }
+
+    /**
+     * Size of the last encoded order. Every invocation encodes the same order, so the reported value is its size.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+
+        public long bytes;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.config.AppConfig;
+import com.example.orderservice.fixtures.OrderFixtures;
+import com.example.orderservice.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson round trip of a single order, with the tuned {@link AppConfig} object mapper or a plain one, and through the
+ * mapper or a pre-built reader and writer for orders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderJsonBenchmark {
+
+    @Param({"1", "10", "50", "500"})
+    private int products;
+
+    @Param({"plain", "tuned"})
+    private String mapper;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader orderReader;
+    private ObjectWriter orderWriter;
+    private Order order;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = "tuned".equals(mapper)
+                ? new AppConfig().objectMapper()
+                : new ObjectMapper().registerModule(new JavaTimeModule());
+        orderReader = objectMapper.readerFor(Order.class);
+        orderWriter = objectMapper.writerFor(Order.class);
+        order = OrderFixtures.uploadedOrder(products, new Random(products));
+        order.setOrderId(UUID.randomUUID());
+        order.setInsertDateTime(LocalDateTime.now());
+        json = objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public Order deserialize() throws IOException {
+        return objectMapper.readValue(json, Order.class);
+    }
+
+    @Benchmark
+    public byte[] serializeWithWriter() throws IOException {
+        return orderWriter.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public Order deserializeWithReader() throws IOException {
+        return orderReader.readValue(json);
+    }
+}
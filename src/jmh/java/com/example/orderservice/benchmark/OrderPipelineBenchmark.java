@@ -0,0 +1,123 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.api.OrderController;
+import com.example.orderservice.config.AppConfig;
+import com.example.orderservice.fixtures.OrderFixtures;
+import com.example.orderservice.model.CreateOrderRequestBody;
+import com.example.orderservice.model.ShoppingCart;
+import com.example.orderservice.service.BatchConfig;
+import com.example.orderservice.service.IdempotencyConfig;
+import com.example.orderservice.service.IdempotencyService;
+import com.example.orderservice.service.InMemoryCacheInvalidationTransport;
+import com.example.orderservice.service.InMemoryIdempotencyStore;
+import com.example.orderservice.service.OrderCache;
+import com.example.orderservice.service.OrderCacheConfig;
+import com.example.orderservice.service.OrderEventBus;
+import com.example.orderservice.service.OrderEventConfig;
+import com.example.orderservice.service.OrderService;
+import com.example.orderservice.service.OrderUploadParser;
+import com.example.orderservice.service.UploadConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order creation through {@link OrderController} and {@link OrderService}, including request validation and the
+ * WebFlux codecs. Requests go straight to the WebFlux handler, without a client decoding the response, and the
+ * shopping-service and MongoDB answer immediately, so only server-side in-process cost is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderPipelineBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int products;
+
+    private AnnotationConfigApplicationContext context;
+    private HttpHandler httpHandler;
+    private String uri;
+    private String requestBody;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new AppConfig().objectMapper();
+        ShoppingCart shoppingCart = OrderFixtures.shoppingCart(products);
+        uri = "/order/" + shoppingCart.getId();
+        requestBody = objectMapper.writeValueAsString(new CreateOrderRequestBody(OrderFixtures.CUSTOMER_INFO, OrderFixtures.DELIVERY_INFO));
+
+        UploadConfig uploadConfig = new UploadConfig();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderEventBus orderEventBus = new OrderEventBus(new OrderEventConfig(), meterRegistry);
+        OrderService orderService = new OrderService(BenchmarkStubs.orderRepository(), BenchmarkStubs.shoppingClient(shoppingCart, meterRegistry),
+                new OrderUploadParser(objectMapper, uploadConfig), uploadConfig, new BatchConfig(), orderEventBus,
+                new OrderCache(new OrderCacheConfig(), new InMemoryCacheInvalidationTransport(), meterRegistry), meterRegistry);
+        IdempotencyService idempotencyService = new IdempotencyService(new InMemoryIdempotencyStore(new IdempotencyConfig(), meterRegistry),
+                objectMapper, meterRegistry);
+
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(ObjectMapper.class, () -> objectMapper);
+        context.registerBean(OrderController.class, () -> new OrderController(orderService, orderEventBus, idempotencyService));
+        context.register(WebConfig.class);
+        context.refresh();
+        httpHandler = WebHttpHandlerBuilder.applicationContext(context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockServerHttpResponse createOrder() {
+        MockServerHttpRequest request = MockServerHttpRequest.post(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(requestBody);
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        httpHandler.handle(request, response).block();
+        return response;
+    }
+
+    @Configuration
+    @EnableWebFlux
+    static class WebConfig implements WebFluxConfigurer {
+
+        private final ObjectMapper objectMapper;
+
+        WebConfig(final ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public void configureHttpMessageCodecs(final ServerCodecConfigurer configurer) {
+            new AppConfig().orderCodecCustomizer(objectMapper).customize(configurer);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.config.AppConfig;
+import com.example.orderservice.fixtures.OrderFixtures;
+import com.example.orderservice.model.UploadBatchResult;
+import com.example.orderservice.service.BatchConfig;
+import com.example.orderservice.service.InMemoryCacheInvalidationTransport;
+import com.example.orderservice.service.OrderCache;
+import com.example.orderservice.service.OrderCacheConfig;
+import com.example.orderservice.service.OrderEventBus;
+import com.example.orderservice.service.OrderEventConfig;
+import com.example.orderservice.service.OrderService;
+import com.example.orderservice.service.OrderUploadParser;
+import com.example.orderservice.service.UploadConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrderService#uploadProducts} over an uploaded file delivered in 8 KiB chunks, like a multipart part. The
+ * repository acknowledges bulk inserts immediately and upload needs no shopping-service, so parsing, mapping and
+ * batching dominate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderUploadBenchmark {
+
+    private static final int CHUNK_SIZE = 8192;
+    private static final int PRODUCTS_PER_ORDER = 10;
+
+    @Param({"10", "100", "1000"})
+    private int orders;
+
+    private OrderService orderService;
+    private FilePart filePart;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new AppConfig().objectMapper();
+        byte[] file = OrderFixtures.uploadFile(objectMapper, orders, PRODUCTS_PER_ORDER);
+
+        filePart = BenchmarkStubs.filePart(() -> chunks(file));
+
+        UploadConfig uploadConfig = new UploadConfig();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        orderService = new OrderService(BenchmarkStubs.orderRepository(), null, new OrderUploadParser(objectMapper, uploadConfig),
+                uploadConfig, new BatchConfig(), new OrderEventBus(new OrderEventConfig(), meterRegistry),
+                new OrderCache(new OrderCacheConfig(), new InMemoryCacheInvalidationTransport(), meterRegistry), meterRegistry);
+    }
+
+    @Benchmark
+    public List<UploadBatchResult> upload() {
+        return orderService.uploadProducts(filePart, false)
+                .collectList()
+                .block();
+    }
+
+    private static Flux<DataBuffer> chunks(final byte[] file) {
+        DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+        return Flux.range(0, (file.length + CHUNK_SIZE - 1) / CHUNK_SIZE)
+                .map(chunk -> {
+                    int offset = chunk * CHUNK_SIZE;
+                    return bufferFactory.wrap(ByteBuffer.wrap(file, offset, Math.min(CHUNK_SIZE, file.length - offset)).slice());
+                });
+    }
+}
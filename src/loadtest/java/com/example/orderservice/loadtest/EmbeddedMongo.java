@@ -0,0 +1,51 @@
+package com.example.orderservice.loadtest;
+
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Locale;
+
+/**
+ * Local mongod started from a downloaded distribution, so no MongoDB installation or container is needed. An
+ * existing server is used instead when {@code loadtest.mongo.uri} is set.
+ */
+@Slf4j
+final class EmbeddedMongo implements AutoCloseable {
+
+    private static final String DATABASE = "order";
+
+    private final TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private final String connectionString;
+
+    private EmbeddedMongo(final TransitionWalker.ReachedState<RunningMongodProcess> mongod, final String connectionString) {
+        this.mongod = mongod;
+        this.connectionString = connectionString;
+    }
+
+    static EmbeddedMongo start(final LoadTestSettings settings) {
+        if (!settings.mongoUri().isEmpty()) {
+            log.info("Using MongoDB at {}", settings.mongoUri());
+            return new EmbeddedMongo(null, settings.mongoUri());
+        }
+        Version.Main version = Version.Main.valueOf("V" + settings.mongoVersion().replace('.', '_').toUpperCase(Locale.ROOT));
+        TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(version);
+        ServerAddress address = mongod.current().getServerAddress();
+        log.info("Started embedded MongoDB {} on {}", version.asInDownloadPath(), address);
+        return new EmbeddedMongo(mongod, "mongodb://" + address.getHost() + ":" + address.getPort() + "/" + DATABASE);
+    }
+
+    String connectionString() {
+        return connectionString;
+    }
+
+    @Override
+    public void close() {
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.orderservice.loadtest;
+
+import com.example.orderservice.fixtures.OrderFixtures;
+import com.example.orderservice.model.CreateOrderRequestBody;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.PaymentRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests are started on a fixed schedule at the target rate whether or not earlier ones have
+ * completed. Latency is measured from the scheduled start, so a stalled server shows up in the percentiles instead
+ * of silently lowering the offered load.
+ */
+@Slf4j
+final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final int PENDING_FINALIZE_CAPACITY = 100_000;
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final CreateOrderRequestBody CREATE_REQUEST = new CreateOrderRequestBody(OrderFixtures.CUSTOMER_INFO, OrderFixtures.DELIVERY_INFO);
+    private static final PaymentRequest PAYMENT_REQUEST = new PaymentRequest("4111111111111111", "12", "2030", "123", "Joe Doe");
+
+    private final LoadTestSettings settings;
+    private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final MultiValueMap<String, ?> uploadBody;
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, Recorder> warmupRecorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final BlockingDeque<UUID> pendingFinalize = new LinkedBlockingDeque<>(PENDING_FINALIZE_CAPACITY);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final int[] cumulativeWeights;
+    private final Operation[] weightedOperations;
+
+    LoadGenerator(final LoadTestSettings settings, final String baseUrl, final byte[] uploadFile) {
+        this.settings = settings;
+        this.connectionProvider = ConnectionProvider.builder("loadtest")
+                .maxConnections(settings.maxInFlight())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.webClient = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+        MultipartBodyBuilder multipart = new MultipartBodyBuilder();
+        multipart.part("file", new ByteArrayResource(uploadFile) {
+            @Override
+            public String getFilename() {
+                return "orders.json";
+            }
+        }).contentType(MediaType.APPLICATION_JSON);
+        this.uploadBody = multipart.build();
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            warmupRecorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            histograms.put(operation, new Histogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+        this.weightedOperations = settings.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[weightedOperations.length];
+        int total = 0;
+        for (int i = 0; i < weightedOperations.length; i++) {
+            total += settings.mix().get(weightedOperations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    LoadReport run() {
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / settings.rps();
+        long start = System.nanoTime();
+        long measureStart = start + settings.warmup().toNanos();
+        long end = measureStart + settings.duration().toNanos();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(this::collect, 1, 1, TimeUnit.SECONDS);
+        try {
+            for (long scheduled = start; scheduled < end; scheduled += periodNanos) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                fire(nextOperation(), scheduled, scheduled >= measureStart);
+            }
+            awaitInFlight();
+        } finally {
+            reporter.shutdownNow();
+            connectionProvider.dispose();
+        }
+        collect();
+        return LoadReport.of(settings, histograms, errors, dropped.sum());
+    }
+
+    private void fire(final Operation operation, final long scheduled, final boolean measured) {
+        if (inFlight.incrementAndGet() > settings.maxInFlight()) {
+            inFlight.decrementAndGet();
+            if (measured) {
+                dropped.increment();
+            }
+            return;
+        }
+        UUID orderId = operation == Operation.FINALIZE ? pendingFinalize.pollLast() : null;
+        Operation executed = operation == Operation.FINALIZE && orderId == null ? Operation.CREATE : operation;
+        request(executed, orderId)
+                .onErrorResume(e -> Mono.just(false))
+                .subscribe(success -> {
+                    (measured ? recorders : warmupRecorders).get(executed).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled), HIGHEST_TRACKABLE_MICROS));
+                    if (measured && !success) {
+                        errors.get(executed).increment();
+                    }
+                    inFlight.decrementAndGet();
+                });
+    }
+
+    private Mono<Boolean> request(final Operation operation, final UUID orderId) {
+        return switch (operation) {
+            case CREATE -> webClient.post()
+                    .uri("/order/{cartId}", UUID.randomUUID())
+                    .bodyValue(CREATE_REQUEST)
+                    .exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+                            ? response.bodyToMono(Order.class)
+                            .doOnNext(order -> pendingFinalize.offerLast(order.getOrderId()))
+                            .thenReturn(true)
+                            : discard(response));
+            case FINALIZE -> webClient.post()
+                    .uri("/order/{orderId}/finalize", orderId)
+                    .bodyValue(PAYMENT_REQUEST)
+                    .exchangeToMono(LoadGenerator::discard);
+            case UPLOAD -> webClient.post()
+                    .uri("/order/upload")
+                    .body(BodyInserters.fromMultipartData(uploadBody))
+                    .exchangeToMono(LoadGenerator::discard);
+        };
+    }
+
+    private static Mono<Boolean> discard(final ClientResponse response) {
+        return response.releaseBody()
+                .thenReturn(response.statusCode().is2xxSuccessful());
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return weightedOperations[i];
+            }
+        }
+        return weightedOperations[weightedOperations.length - 1];
+    }
+
+    /**
+     * Moves the latencies recorded since the last call into the totals and logs them, requests scheduled during
+     * warmup are only logged.
+     */
+    private synchronized void collect() {
+        StringBuilder line = new StringBuilder();
+        for (Operation operation : Operation.values()) {
+            Histogram measured = recorders.get(operation).getIntervalHistogram();
+            histograms.get(operation).add(measured);
+            append(line, operation, measured, "");
+            append(line, operation, warmupRecorders.get(operation).getIntervalHistogram(), " (warmup)");
+        }
+        log.info("in-flight {}{}", inFlight.get(), line);
+    }
+
+    private static void append(final StringBuilder line, final Operation operation, final Histogram interval, final String suffix) {
+        if (interval.getTotalCount() > 0) {
+            line.append(String.format(Locale.ROOT, " | %s%s %d done p99=%.1fms", operation, suffix, interval.getTotalCount(),
+                    interval.getValueAtPercentile(99) / 1000.0));
+        }
+    }
+
+    private void awaitInFlight() {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.orderservice.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and latency percentiles per operation over the measured part of the run, latencies in milliseconds.
+ */
+record LoadReport(int targetRps, double durationSeconds, long dropped, List<OperationReport> operations) {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    record OperationReport(Operation operation, long count, long errors, double throughput,
+                           double p50, double p90, double p99, double p999, double max,
+                           @JsonIgnore Histogram histogram) {
+    }
+
+    static LoadReport of(final LoadTestSettings settings, final Map<Operation, Histogram> histograms,
+                         final Map<Operation, LongAdder> errors, final long dropped) {
+        double seconds = settings.duration().toMillis() / 1000.0;
+        List<OperationReport> operations = histograms.entrySet().stream()
+                .filter(entry -> entry.getValue().getTotalCount() > 0)
+                .map(entry -> {
+                    Histogram histogram = entry.getValue();
+                    return new OperationReport(entry.getKey(), histogram.getTotalCount(), errors.get(entry.getKey()).sum(),
+                            histogram.getTotalCount() / seconds,
+                            millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                            millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                            millis(histogram.getMaxValue()), histogram);
+                })
+                .toList();
+        return new LoadReport(settings.rps(), seconds, dropped, operations);
+    }
+
+    void print(final PrintStream out) {
+        out.printf(Locale.ROOT, "%nTarget %d req/s for %.0fs, %d requests dropped at the in-flight limit%n", targetRps, durationSeconds, dropped);
+        out.printf(Locale.ROOT, "%-9s %9s %8s %9s %9s %9s %9s %9s %9s%n", "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (OperationReport report : operations) {
+            out.printf(Locale.ROOT, "%-9s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", report.operation(), report.count(), report.errors(),
+                    report.throughput(), report.p50(), report.p90(), report.p99(), report.p999(), report.max());
+        }
+    }
+
+    /**
+     * Writes {@code report.json} and one HdrHistogram percentile distribution ({@code .hgrm}) per operation, which
+     * can be plotted with the HdrHistogram plotter.
+     */
+    void write(final Path dir, final ObjectMapper objectMapper) throws IOException {
+        Files.createDirectories(dir);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(dir.resolve("report.json").toFile(), this);
+        for (OperationReport report : operations) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(report.operation().name().toLowerCase(Locale.ROOT) + ".hgrm")))) {
+                report.histogram().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private static double millis(final long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.orderservice.loadtest;
+
+import com.example.orderservice.OrderServiceApplication;
+import com.example.orderservice.config.AppConfig;
+import com.example.orderservice.fixtures.OrderFixtures;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ConnectionString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.mongo.MongoConnectionDetails;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts MongoDB, a shopping-service stub and the application in one JVM, drives open-model load against the
+ * order endpoints and reports throughput and latency percentiles. Run with {@code mvn -Ploadtest verify}, see
+ * {@link LoadTestSettings} for the parameters.
+ */
+@Slf4j
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(final String[] args) {
+        try {
+            run();
+        } catch (Exception e) {
+            log.error("Load test failed", e);
+            System.exit(1);
+        }
+        // Client and driver event loops may outlive the application context and would keep the JVM alive.
+        System.exit(0);
+    }
+
+    private static void run() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        ObjectMapper objectMapper = new AppConfig().objectMapper();
+        // Restarting in a new class loader would detach the application from the harness.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (EmbeddedMongo mongo = EmbeddedMongo.start(settings);
+             ShoppingServiceStub shoppingService = new ShoppingServiceStub(settings, objectMapper);
+             ConfigurableApplicationContext application = startApplication(mongo, shoppingService)) {
+            String baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+            log.info("Offering {} req/s with mix {} to {}, warmup {}, duration {}", settings.rps(), settings.mix(), baseUrl, settings.warmup(), settings.duration());
+            LoadReport report = new LoadGenerator(settings, baseUrl,
+                    OrderFixtures.uploadFile(objectMapper, settings.uploadOrders(), settings.cartProducts())).run();
+            report.print(System.out);
+            report.write(settings.reportDir(), objectMapper);
+            log.info("Report written to {}", settings.reportDir().toAbsolutePath());
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(final EmbeddedMongo mongo, final ShoppingServiceStub shoppingService) {
+        ConnectionString connectionString = new ConnectionString(mongo.connectionString());
+        return new SpringApplicationBuilder(OrderServiceApplication.class)
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("loadTestMongoConnectionDetails", (MongoConnectionDetails) () -> connectionString))
+                // The generator is a single client offering the whole load, admission control would only measure 429s.
+                .run("--server.port=0",
+                        "--internal.api.shopping-service.url=" + shoppingService.cartUrl(),
+                        "--order.admission.enabled=false",
+                        "--logging.level.com.example.orderservice=INFO");
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.orderservice.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load test parameters, read from {@code loadtest.*} system properties so that they can be passed with {@code -D}
+ * on the Maven command line.
+ */
+record LoadTestSettings(
+        int rps,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        int maxInFlight,
+        int uploadOrders,
+        int cartProducts,
+        Duration stubLatency,
+        Duration stubJitter,
+        double stubErrorRate,
+        String mongoUri,
+        String mongoVersion,
+        Path reportDir
+) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.parseInt(property("rps", "200")),
+                DurationStyle.detectAndParse(property("warmup", "10s")),
+                DurationStyle.detectAndParse(property("duration", "60s")),
+                mix(property("mix", "create=70,finalize=25,upload=5")),
+                Integer.parseInt(property("max-in-flight", "2000")),
+                Integer.parseInt(property("upload-orders", "100")),
+                Integer.parseInt(property("cart-products", "5")),
+                DurationStyle.detectAndParse(property("stub.latency", "20ms")),
+                DurationStyle.detectAndParse(property("stub.jitter", "10ms")),
+                Double.parseDouble(property("stub.error-rate", "0")),
+                property("mongo.uri", ""),
+                property("mongo.version", "6.0"),
+                Path.of(property("report-dir", "target/loadtest")));
+    }
+
+    /**
+     * Parses weights like {@code create=70,finalize=25,upload=5}, operations left out are not run.
+     */
+    static Map<Operation, Integer> mix(final String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] weight = entry.split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            }
+            mix.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+
+    private static String property(final String name, final String defaultValue) {
+        String value = System.getProperty("loadtest." + name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
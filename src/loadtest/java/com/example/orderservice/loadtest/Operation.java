@@ -0,0 +1,16 @@
+package com.example.orderservice.loadtest;
+
+enum Operation {
+    /**
+     * {@code POST /order/{cartId}} for a random cart served by the shopping-service stub.
+     */
+    CREATE,
+    /**
+     * {@code POST /order/{orderId}/finalize} for an order created earlier in the run, the most recent first and a create when none is left.
+     */
+    FINALIZE,
+    /**
+     * {@code POST /order/upload} with a file of {@code loadtest.upload-orders} orders.
+     */
+    UPLOAD
+}
@@ -0,0 +1,66 @@
+package com.example.orderservice.loadtest;
+
+import com.example.orderservice.fixtures.OrderFixtures;
+import com.example.orderservice.model.Product;
+import com.example.orderservice.model.ShoppingCart;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Minimal shopping-service answering {@code GET /shopping/cart/{cartId}} for any id, after a configurable latency
+ * and failing a configurable share of requests with 503.
+ */
+final class ShoppingServiceStub implements AutoCloseable {
+
+    private final LoadTestSettings settings;
+    private final ObjectMapper objectMapper;
+    private final List<Product> products;
+    private final DisposableServer server;
+
+    ShoppingServiceStub(final LoadTestSettings settings, final ObjectMapper objectMapper) {
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+        this.products = OrderFixtures.products(settings.cartProducts(), new Random(settings.cartProducts()));
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.get("/shopping/cart/{cartId}", this::cart))
+                .bindNow();
+    }
+
+    String cartUrl() {
+        return "http://localhost:" + server.port() + "/shopping/cart";
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> cart(final HttpServerRequest request, final HttpServerResponse response) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long jitter = settings.stubJitter().toNanos();
+        Duration latency = settings.stubLatency().plusNanos(jitter > 0 ? random.nextLong(jitter) : 0);
+        boolean fail = random.nextDouble() < settings.stubErrorRate();
+        return Mono.delay(latency)
+                .then(Mono.defer(() -> fail
+                        ? Mono.from(response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send())
+                        : Mono.from(response.header(HttpHeaderNames.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .sendByteArray(Mono.fromCallable(() -> objectMapper.writeValueAsBytes(
+                                new ShoppingCart(UUID.fromString(request.param("cartId")), products))))
+                )));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.orderservice.api;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.admission")
+@Getter
+@Setter
+public class AdmissionConfig {
+
+    private boolean enabled = true;
+
+    /**
+     * Header identifying the calling client for per-client rate limits, within its address. Requests without it or
+     * a trusted address are only held to the limits shared by all clients.
+     */
+    private String clientIdHeader = "X-Client-Id";
+
+    /**
+     * Header carrying the caller's address as set by a trusted proxy, such as X-Forwarded-For, whose last entry is
+     * used. Only set it when every request passes through a proxy that sets the header, as callers can send it too.
+     * Unset, the remote address is only used to group client ids, since behind a proxy it is the same for everyone.
+     */
+    private String trustedAddressHeader;
+
+    /**
+     * Maximum number of distinct client ids honoured per remote address, so that rotating ids does not escape the
+     * per-client limits. Requests with further ids share the limit of the address.
+     */
+    private int maxClientIdsPerAddress = 16;
+
+    /**
+     * Maximum number of clients with a rate limit bucket, the least recently seen ones are forgotten first.
+     */
+    private long maxTrackedClients = 10_000;
+
+    private Limits read = new Limits(512, 0, Duration.ZERO, 0, 0, 0, 0);
+
+    private Limits write = new Limits(256, 512, Duration.ofSeconds(1), 0, 0, 50, 100);
+
+    private Limits bulk = new Limits(4, 8, Duration.ofSeconds(5), 2, 4, 1, 2);
+
+    private Limits stream = new Limits(1000, 0, Duration.ZERO, 0, 0, 1, 5);
+
+    public Limits limits(final RouteClass routeClass) {
+        return switch (routeClass) {
+            case READ -> read;
+            case WRITE -> write;
+            case BULK -> bulk;
+            case STREAM -> stream;
+        };
+    }
+
+    @Getter
+    @Setter
+    public static class Limits {
+
+        /**
+         * Maximum number of requests of the class processed at once, 0 for no limit.
+         */
+        private int maxConcurrent;
+
+        /**
+         * Maximum number of requests waiting for a free slot. Further requests are rejected with 503 right away.
+         */
+        private int maxQueued;
+
+        /**
+         * Maximum time a request waits for a free slot before it is rejected with 503.
+         */
+        private Duration queueTimeout;
+
+        /**
+         * Requests per second admitted for the class across all clients, 0 for no limit.
+         */
+        private double rate;
+
+        private int burst;
+
+        /**
+         * Requests per second admitted for the class per client, 0 for no limit.
+         */
+        private double clientRate;
+
+        private int clientBurst;
+
+        public Limits() {
+        }
+
+        Limits(final int maxConcurrent, final int maxQueued, final Duration queueTimeout, final double rate, final int burst,
+               final double clientRate, final int clientBurst) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+            this.queueTimeout = queueTimeout;
+            this.rate = rate;
+            this.burst = burst;
+            this.clientRate = clientRate;
+            this.clientBurst = clientBurst;
+        }
+    }
+}
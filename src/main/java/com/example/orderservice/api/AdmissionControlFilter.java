@@ -0,0 +1,178 @@
+package com.example.orderservice.api;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Admits requests per {@link RouteClass} through a per-client and a shared token bucket, answering 429 when either
+ * is empty, and then through a concurrency cap with a bounded queue, answering 503 when the queue is full or the
+ * wait times out. The client bucket is checked first, so a client over its own limit does not use up the shared
+ * capacity; requests without a client identity only go through the shared bucket. Rejections carry a Retry-After header and are counted in {@code order.admission.rejected}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter implements WebFilter {
+
+    private final AdmissionConfig config;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoTime;
+    private final Map<RouteClass, TokenBucket> routeBuckets = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, ConcurrencyLimiter> limiters = new EnumMap<>(RouteClass.class);
+    private final Cache<String, TokenBucket> clientBuckets;
+    private final Cache<String, Set<String>> clientIdsByAddress;
+
+    @Autowired
+    public AdmissionControlFilter(final AdmissionConfig config, final MeterRegistry meterRegistry) {
+        this(config, meterRegistry, System::nanoTime);
+    }
+
+    AdmissionControlFilter(final AdmissionConfig config, final MeterRegistry meterRegistry, final LongSupplier nanoTime) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.nanoTime = nanoTime;
+        this.clientBuckets = Caffeine.newBuilder()
+                .maximumSize(config.getMaxTrackedClients())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        this.clientIdsByAddress = Caffeine.newBuilder()
+                .maximumSize(config.getMaxTrackedClients())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        for (RouteClass routeClass : RouteClass.values()) {
+            AdmissionConfig.Limits limits = config.limits(routeClass);
+            if (limits.getRate() > 0) {
+                routeBuckets.put(routeClass, new TokenBucket(limits.getRate(), limits.getBurst(), nanoTime));
+            }
+            if (limits.getMaxConcurrent() > 0) {
+                ConcurrencyLimiter limiter = new ConcurrencyLimiter(limits.getMaxConcurrent(), limits.getMaxQueued());
+                limiters.put(routeClass, limiter);
+                Gauge.builder("order.admission.in.flight", limiter, ConcurrencyLimiter::inFlight)
+                        .description("Requests in progress")
+                        .tag("route", tag(routeClass))
+                        .register(meterRegistry);
+                Gauge.builder("order.admission.queued", limiter, ConcurrencyLimiter::queued)
+                        .description("Requests waiting for a free slot")
+                        .tag("route", tag(routeClass))
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        RouteClass routeClass = config.isEnabled() ? RouteClass.of(request.getMethod(), request.getPath().pathWithinApplication().value()) : null;
+        if (routeClass == null) {
+            return chain.filter(exchange);
+        }
+        AdmissionConfig.Limits limits = config.limits(routeClass);
+        String clientKey = limits.getClientRate() > 0 ? clientKey(request) : null;
+        if (clientKey != null) {
+            long wait = clientBuckets.get(routeClass.name() + ':' + clientKey,
+                    key -> new TokenBucket(limits.getClientRate(), limits.getClientBurst(), nanoTime)).tryAcquire();
+            if (wait > 0) {
+                return reject(exchange, routeClass, "client_rate_limited", HttpStatus.TOO_MANY_REQUESTS, wait);
+            }
+        }
+        TokenBucket routeBucket = routeBuckets.get(routeClass);
+        long wait = routeBucket != null ? routeBucket.tryAcquire() : 0;
+        if (wait > 0) {
+            return reject(exchange, routeClass, "rate_limited", HttpStatus.TOO_MANY_REQUESTS, wait);
+        }
+        ConcurrencyLimiter limiter = limiters.get(routeClass);
+        if (limiter == null) {
+            return chain.filter(exchange);
+        }
+        Mono<Void> slot = limits.getQueueTimeout().isZero() ? limiter.acquire() : limiter.acquire().timeout(limits.getQueueTimeout());
+        long retryAfter = Math.max(limits.getQueueTimeout().toNanos(), TimeUnit.SECONDS.toNanos(1));
+        return slot
+                .thenReturn(true)
+                .onErrorResume(ConcurrencyLimiter.QueueFullException.class,
+                        e -> reject(exchange, routeClass, "queue_full", HttpStatus.SERVICE_UNAVAILABLE, retryAfter).thenReturn(false))
+                .onErrorResume(TimeoutException.class,
+                        e -> reject(exchange, routeClass, "queue_timeout", HttpStatus.SERVICE_UNAVAILABLE, retryAfter).thenReturn(false))
+                .flatMap(admitted -> admitted
+                        ? chain.filter(exchange).doFinally(signal -> limiter.release())
+                        : Mono.empty());
+    }
+
+    /**
+     * Clients are told apart by client id within their address, or by the address set by a trusted proxy. The id is
+     * chosen by the caller, so only a limited number of ids is honoured per address, further ones share the bucket of
+     * the address. Without either there is no client identity, the remote address being the proxy's for every
+     * caller behind it, and only the shared limits apply.
+     */
+    private String clientKey(final ServerHttpRequest request) {
+        String clientId = request.getHeaders().getFirst(config.getClientIdHeader());
+        String forwardedAddress = forwardedAddress(request);
+        if (clientId == null) {
+            return forwardedAddress;
+        }
+        String address = forwardedAddress != null ? forwardedAddress : remoteAddress(request);
+        Set<String> clientIds = clientIdsByAddress.get(address, key -> ConcurrentHashMap.newKeySet());
+        synchronized (clientIds) {
+            if (!clientIds.contains(clientId) && clientIds.size() >= config.getMaxClientIdsPerAddress()) {
+                return address;
+            }
+            clientIds.add(clientId);
+        }
+        return address + '/' + clientId;
+    }
+
+    /**
+     * The last entry is the one added by the trusted proxy, earlier ones are whatever the caller sent.
+     */
+    private String forwardedAddress(final ServerHttpRequest request) {
+        String header = config.getTrustedAddressHeader();
+        List<String> values = header == null || header.isEmpty() ? null : request.getHeaders().get(header);
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        String value = values.get(values.size() - 1);
+        String address = value.substring(value.lastIndexOf(',') + 1).trim();
+        return address.isEmpty() ? null : address;
+    }
+
+    private static String remoteAddress(final ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null ? remoteAddress.getHostString() : "unknown";
+    }
+
+    private Mono<Void> reject(final ServerWebExchange exchange, final RouteClass routeClass, final String reason,
+                              final HttpStatus status, final long retryAfterNanos) {
+        meterRegistry.counter("order.admission.rejected", "route", tag(routeClass), "reason", reason).increment();
+        exchange.getResponse().setStatusCode(status);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+        return exchange.getResponse().setComplete();
+    }
+
+    private static String tag(final RouteClass routeClass) {
+        return routeClass.name().toLowerCase(Locale.ROOT);
+    }
+}
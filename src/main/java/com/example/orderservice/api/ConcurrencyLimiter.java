@@ -0,0 +1,104 @@
+package com.example.orderservice.api;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Caps the number of requests in progress, with a bounded FIFO queue of requests waiting for a slot. A slot released
+ * while requests wait is handed over directly to the oldest one.
+ */
+class ConcurrencyLimiter {
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Deque<Waiter> waiting = new ArrayDeque<>();
+    private int inFlight;
+
+    ConcurrencyLimiter(final int maxConcurrent, final int maxQueued) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Completes once a slot is held, which then has to be given back with {@link #release()}, or fails with
+     * {@link QueueFullException} when neither a slot nor a place in the queue is free. Cancelling while queued gives
+     * up the place, or the slot when it was granted concurrently.
+     */
+    Mono<Void> acquire() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            // Registered before the waiter is queued, so a cancel arriving in between is not lost.
+            sink.onCancel(() -> cancel(waiter));
+            synchronized (this) {
+                if (waiter.cancelled) {
+                    return;
+                }
+                if (inFlight < maxConcurrent) {
+                    inFlight++;
+                    waiter.granted = true;
+                } else if (waiting.size() < maxQueued) {
+                    waiting.addLast(waiter);
+                } else {
+                    sink.error(new QueueFullException());
+                    return;
+                }
+            }
+            if (waiter.granted) {
+                sink.success();
+            }
+        });
+    }
+
+    void release() {
+        Waiter next;
+        synchronized (this) {
+            next = waiting.pollFirst();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+            next.granted = true;
+        }
+        next.sink.success();
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    synchronized int queued() {
+        return waiting.size();
+    }
+
+    private void cancel(final Waiter waiter) {
+        synchronized (this) {
+            waiter.cancelled = true;
+            if (!waiter.granted) {
+                waiting.remove(waiter);
+                return;
+            }
+        }
+        release();
+    }
+
+    private static final class Waiter {
+
+        private final MonoSink<Void> sink;
+        private boolean granted;
+        private boolean cancelled;
+
+        private Waiter(final MonoSink<Void> sink) {
+            this.sink = sink;
+        }
+    }
+
+    static class QueueFullException extends RuntimeException {
+
+        QueueFullException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -1,17 +1,34 @@
 package com.example.orderservice.api;
 
 
+import com.example.orderservice.model.BatchOrderRequest;
+import com.example.orderservice.model.BatchOrderResult;
+import com.example.orderservice.model.BulkDeleteRequest;
+import com.example.orderservice.model.BulkDeleteResult;
 import com.example.orderservice.model.CreateOrderRequestBody;
+import com.example.orderservice.model.FinalizeOrderResult;
 import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderEvent;
+import com.example.orderservice.model.OrderEventType;
+import com.example.orderservice.model.OrderSearchCriteria;
+import com.example.orderservice.model.OrderSummary;
 import com.example.orderservice.model.PaymentRequest;
+import com.example.orderservice.model.UploadBatchResult;
+import com.example.orderservice.service.IdempotencyService;
+import com.example.orderservice.service.OrderEventBus;
 import com.example.orderservice.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
@@ -19,11 +36,53 @@ import java.util.UUID;
 @AllArgsConstructor
 public class OrderController {
 
+    public static final String ORDER_CHANGED_HEADER = "Order-Changed";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    /**
+     * Binary JSON, accepted and served next to JSON. Streaming endpoints use the stream variant.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final String APPLICATION_STREAM_SMILE_VALUE = "application/stream+x-jackson-smile";
+
     private final OrderService orderService;
+    private final OrderEventBus orderEventBus;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping("{cartId}")
-    public Mono<Order> createOrder(final @PathVariable UUID cartId, final @RequestBody @Valid CreateOrderRequestBody requestBody) {
-        return orderService.createOrder(cartId, requestBody.customerInfo(), requestBody.deliveryInfo());
+    public Mono<Order> createOrder(final @PathVariable UUID cartId,
+                                   final @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                   final @RequestBody @Valid CreateOrderRequestBody requestBody) {
+        if (idempotencyKey == null) {
+            return orderService.createOrder(cartId, requestBody.customerInfo(), requestBody.deliveryInfo());
+        }
+        return idempotencyService.executeCreate(idempotencyKey, idempotencyService.fingerprint("create:" + cartId, requestBody),
+                () -> orderService.createOrder(cartId, requestBody.customerInfo(), requestBody.deliveryInfo()));
+    }
+
+    @PostMapping(value = "/batch", produces = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_STREAM_SMILE_VALUE})
+    public Flux<BatchOrderResult> createOrders(final @RequestBody @Valid Flux<BatchOrderRequest> requests) {
+        return orderService.createOrders(requests);
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_STREAM_SMILE_VALUE})
+    public Flux<Order> listOrders(final @Valid OrderSearchCriteria criteria) {
+        return orderService.listOrders(criteria);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<OrderEvent>> streamOrderEvents(final @RequestParam(required = false) Set<OrderEventType> types,
+                                                               final @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return orderEventBus.events(types != null ? types : Set.of(), lastEventId)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(event.id())
+                        .event(event.type().name())
+                        .build());
+    }
+
+    @GetMapping(value = "/events", produces = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_STREAM_SMILE_VALUE})
+    public Flux<OrderEvent> streamOrderEventsAsNdjson(final @RequestParam(required = false) Set<OrderEventType> types,
+                                                      final @RequestParam(required = false) String lastEventId) {
+        return orderEventBus.events(types != null ? types : Set.of(), lastEventId);
     }
 
     @GetMapping("{orderId}")
@@ -31,18 +90,42 @@ public class OrderController {
         return orderService.retrieveOrder(orderId);
     }
 
+    @GetMapping("{orderId}/summary")
+    public Mono<OrderSummary> retrieveOrderSummary(final @PathVariable UUID orderId, final @RequestParam(required = false) List<String> fields) {
+        return orderService.retrieveOrderSummary(orderId, fields);
+    }
+
     @DeleteMapping("{orderId}")
     public Mono<Void> deleteOrder(final @PathVariable UUID orderId) {
         return orderService.deleteOrder(orderId);
     }
 
+    @PostMapping("/delete")
+    public Mono<BulkDeleteResult> deleteOrders(final @RequestBody @Valid BulkDeleteRequest request) {
+        return orderService.deleteOrders(request.orderIds());
+    }
+
     @PostMapping("{orderId}/finalize")
-    public Mono<Order> finalizeOrder(final @PathVariable UUID orderId, final @RequestBody @Valid PaymentRequest paymentRequest) {
-        return orderService.finalizeOrder(orderId);
+    public Mono<ResponseEntity<Order>> finalizeOrder(final @PathVariable UUID orderId,
+                                                     final @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                     final @RequestBody @Valid PaymentRequest paymentRequest) {
+        Mono<FinalizeOrderResult> finalized = idempotencyKey == null
+                ? orderService.finalizeOrder(orderId)
+                : idempotencyService.executeFinalize(idempotencyKey, "finalize:" + orderId, () -> orderService.finalizeOrder(orderId));
+        return finalized
+                .map(result -> ResponseEntity.ok()
+                        .header(ORDER_CHANGED_HEADER, String.valueOf(result.changed()))
+                        .body(result.order()));
     }
 
-    @PostMapping("/upload")
-    public Flux<Order> uploadOrders(final @RequestPart("file") FilePart filePart) {
-        return orderService.uploadProducts(filePart);
+    /**
+     * Streams one result per inserted batch as soon as it is written. A JSON array is still served to clients that
+     * only accept JSON.
+     */
+    @PostMapping(value = "/upload", produces = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_STREAM_SMILE_VALUE,
+            MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    public Flux<UploadBatchResult> uploadOrders(final @RequestPart("file") FilePart filePart,
+                                                final @RequestParam(defaultValue = "false") boolean includeIds) {
+        return orderService.uploadProducts(filePart, includeIds);
     }
 }
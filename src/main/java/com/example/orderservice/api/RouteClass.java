@@ -0,0 +1,41 @@
+package com.example.orderservice.api;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Groups order endpoints by cost, so that admission limits for expensive bulk imports never hold back cheap reads.
+ */
+public enum RouteClass {
+    /**
+     * Single order reads, listings and summaries.
+     */
+    READ,
+    /**
+     * Order creation, finalization and single deletes.
+     */
+    WRITE,
+    /**
+     * Uploads, batch creation and bulk deletes.
+     */
+    BULK,
+    /**
+     * Long-lived event streams.
+     */
+    STREAM;
+
+    /**
+     * Returns null for paths outside of the order API, such as the actuator endpoints, which are never limited.
+     */
+    public static RouteClass of(final HttpMethod method, final String path) {
+        if (!path.equals("/order") && !path.startsWith("/order/")) {
+            return null;
+        }
+        if (HttpMethod.GET.equals(method)) {
+            return path.equals("/order/events") ? STREAM : READ;
+        }
+        if (HttpMethod.POST.equals(method) && (path.equals("/order/upload") || path.equals("/order/batch") || path.equals("/order/delete"))) {
+            return BULK;
+        }
+        return WRITE;
+    }
+}
@@ -1,35 +1,97 @@
 package com.example.orderservice.client;
 
+import com.example.orderservice.metrics.CallTimer;
 import com.example.orderservice.model.ShoppingCart;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
-public class ShoppingClient {
+public class ShoppingClient implements DisposableBean {
+
+    public static final String CART_CACHE_NAME = "shopping-carts";
 
     private final WebClient webClient;
 
     private final ShoppingConfig config;
 
+    private final AsyncCache<UUID, ShoppingCart> cartCache;
+
+    private final ConnectionProvider connectionProvider;
+
+    private final ShoppingResilience resilience;
+
+    private final CallTimer callTimer;
+
     @Autowired
-    public ShoppingClient(WebClient.Builder webClientBuilder, ShoppingConfig config) {
-        this.webClient = WebClient.builder().baseUrl(config.getUrl()).build();
+    public ShoppingClient(WebClient.Builder webClientBuilder, ShoppingConfig config, MeterRegistry meterRegistry) {
+        this.connectionProvider = ShoppingHttpClients.connectionProvider(config.getPool());
+        this.webClient = webClientBuilder.clone()
+                .baseUrl(config.getUrl())
+                .clientConnector(new ReactorClientHttpConnector(ShoppingHttpClients.httpClient(config.getHttp(), connectionProvider)))
+                .build();
         this.config = config;
+        this.resilience = new ShoppingResilience(config.getResilience(), meterRegistry);
+        this.callTimer = new CallTimer("order.client", meterRegistry);
+        this.cartCache = config.getCache().isEnabled() ? createCartCache(config.getCache(), meterRegistry) : null;
     }
 
     public Mono<ShoppingCart> getShoppingCart(final UUID cartId) {
+        if (cartCache == null) {
+            return fetchShoppingCart(cartId);
+        }
+        return Mono.defer(() -> {
+            CompletableFuture<ShoppingCart> cart = cartCache.get(cartId, (id, executor) -> fetchShoppingCart(id).toFuture());
+            // Callers share the pending future, so one cancelled subscriber must not cancel the upstream call.
+            // A failed future is dropped right away so that a retry does not observe it before the cache does.
+            return Mono.fromFuture(cart, true)
+                    .doOnError(e -> cartCache.asMap().remove(cartId, cart));
+        });
+    }
+
+    /**
+     * Timed including retries, so cache hits are not counted and the timer reflects the shopping-service itself.
+     */
+    private Mono<ShoppingCart> fetchShoppingCart(final UUID cartId) {
+        return callTimer.time("getShoppingCart", resilience.decorate(requestShoppingCart(cartId)));
+    }
+
+    private Mono<ShoppingCart> requestShoppingCart(final UUID cartId) {
         return webClient.get()
                 .uri("/{cartId}", cartId)
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, response -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Shopping cart not found")))
                 .onStatus(HttpStatusCode::is5xxServerError, response -> Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected error occurred")))
-                .bodyToMono(ShoppingCart.class);
+                .bodyToMono(ShoppingCart.class)
+                .onErrorMap(WebClientRequestException.class, e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Shopping service is unavailable", e));
+    }
+
+    @Override
+    public void destroy() {
+        connectionProvider.dispose();
+    }
+
+    private static AsyncCache<UUID, ShoppingCart> createCartCache(final ShoppingConfig.Cache cache, final MeterRegistry meterRegistry) {
+        AsyncCache<UUID, ShoppingCart> cartCache = Caffeine.newBuilder()
+                .maximumSize(cache.getMaxSize())
+                .expireAfterWrite(cache.getTtl())
+                .recordStats()
+                .buildAsync();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cartCache, CART_CACHE_NAME);
     }
 }
@@ -4,6 +4,10 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpProtocol;
+
+import java.time.Duration;
+import java.util.List;
 
 @Component
 @ConfigurationProperties(prefix = "internal.api.shopping-service")
@@ -12,4 +16,156 @@ import org.springframework.stereotype.Component;
 public class ShoppingConfig {
 
     private String url;
+
+    private Cache cache = new Cache();
+
+    private Http http = new Http();
+
+    private Pool pool = new Pool();
+
+    private Resilience resilience = new Resilience();
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        /**
+         * Whether fetched shopping carts are cached in process. Concurrent requests for the same cart always share
+         * a single upstream call while the cache is enabled.
+         */
+        private boolean enabled = false;
+
+        private long maxSize = 10_000;
+
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Http {
+
+        /**
+         * HTTP11 uses keep-alive HTTP/1.1 connections, H2C talks cleartext HTTP/2 with prior knowledge.
+         */
+        private List<HttpProtocol> protocols = List.of(HttpProtocol.HTTP11);
+
+        private boolean keepAlive = true;
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Maximum time to wait for the response of a single request.
+         */
+        private Duration responseTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Whether per-request client metrics are recorded by Reactor Netty.
+         */
+        private boolean metrics = true;
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        private int maxConnections = 100;
+
+        /**
+         * Maximum number of requests waiting for a connection. Further requests are rejected immediately.
+         */
+        private int pendingAcquireMaxCount = 200;
+
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+
+        /**
+         * Interval of the background task closing idle and expired connections.
+         */
+        private Duration evictInBackground = Duration.ofSeconds(30);
+
+        /**
+         * Whether connection pool gauges are published to the metrics registry.
+         */
+        private boolean metrics = true;
+    }
+
+    @Getter
+    @Setter
+    public static class Resilience {
+
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+        private Bulkhead bulkhead = new Bulkhead();
+
+        private Retry retry = new Retry();
+
+        private Hedge hedge = new Hedge();
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        private boolean enabled = true;
+
+        private float failureRateThreshold = 50;
+
+        private float slowCallRateThreshold = 80;
+
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(2);
+
+        private int slidingWindowSize = 50;
+
+        private int minimumNumberOfCalls = 20;
+
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+
+        private int permittedNumberOfCallsInHalfOpenState = 5;
+    }
+
+    @Getter
+    @Setter
+    public static class Bulkhead {
+
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of shopping-service calls in flight. Further calls are rejected with 503.
+         */
+        private int maxConcurrentCalls = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class Retry {
+
+        /**
+         * Number of retries after the first attempt, only for upstream 5xx and connection failures.
+         */
+        private int maxRetries = 2;
+
+        private Duration minBackoff = Duration.ofMillis(50);
+
+        private Duration maxBackoff = Duration.ofMillis(500);
+
+        private double jitter = 0.5;
+    }
+
+    @Getter
+    @Setter
+    public static class Hedge {
+
+        private boolean enabled = false;
+
+        /**
+         * Delay after which a hedged request is sent until enough latency samples are collected, afterwards the
+         * observed p95 latency is used.
+         */
+        private Duration delay = Duration.ofMillis(300);
+
+        private long minSamples = 100;
+    }
 }
@@ -0,0 +1,37 @@
+package com.example.orderservice.client;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+final class ShoppingHttpClients {
+
+    static final String CONNECTION_POOL_NAME = "shopping-service";
+    private static final String CART_URI_TAG = "/{cartId}";
+
+    private ShoppingHttpClients() {
+    }
+
+    static ConnectionProvider connectionProvider(final ShoppingConfig.Pool pool) {
+        return ConnectionProvider.builder(CONNECTION_POOL_NAME)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(pool.isMetrics())
+                .build();
+    }
+
+    static HttpClient httpClient(final ShoppingConfig.Http http, final ConnectionProvider connectionProvider) {
+        return HttpClient.create(connectionProvider)
+                .protocol(http.getProtocols().toArray(HttpProtocol[]::new))
+                .keepAlive(http.isKeepAlive())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .responseTimeout(http.getResponseTimeout())
+                // Cart ids are collapsed into a single uri tag to keep metric cardinality bounded.
+                .metrics(http.isMetrics(), uri -> CART_URI_TAG);
+    }
+}
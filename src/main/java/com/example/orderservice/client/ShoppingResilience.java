@@ -0,0 +1,176 @@
+package com.example.orderservice.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquirePendingLimitException;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guards shopping-service calls with, from the outside in: a bulkhead limiting concurrent calls, jittered retries of
+ * upstream failures, a circuit breaker recording every attempt and an optional hedged request per attempt. A request
+ * turned away by the local connection pool says nothing about the shopping-service, so it is neither retried nor
+ * recorded by the circuit breaker.
+ */
+@Slf4j
+class ShoppingResilience {
+
+    static final String NAME = "shopping-service";
+
+    private final ShoppingConfig.Resilience config;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Bulkhead bulkhead;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer attemptTimer;
+
+    private final Counter retryCounter;
+
+    private final Counter hedgeCounter;
+
+    ShoppingResilience(final ShoppingConfig.Resilience config, final MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = config.getCircuitBreaker().isEnabled() ? createCircuitBreaker(config.getCircuitBreaker(), meterRegistry) : null;
+        this.bulkhead = config.getBulkhead().isEnabled() ? createBulkhead(config.getBulkhead(), meterRegistry) : null;
+        this.attemptTimer = Timer.builder("shopping.client.attempt")
+                .description("Latency of successful shopping-service attempts, drives the hedging delay")
+                .publishPercentiles(0.95)
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("shopping.client.retries")
+                .description("Retried shopping-service calls")
+                .register(meterRegistry);
+        this.hedgeCounter = Counter.builder("shopping.client.hedges")
+                .description("Hedged shopping-service requests")
+                .register(meterRegistry);
+    }
+
+    <T> Mono<T> decorate(final Mono<T> call) {
+        Mono<T> attempt = hedged(timed(call));
+        if (circuitBreaker != null) {
+            attempt = attempt.transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+        }
+        ShoppingConfig.Retry retry = config.getRetry();
+        Mono<T> decorated = attempt.retryWhen(Retry.backoff(retry.getMaxRetries(), retry.getMinBackoff())
+                .maxBackoff(retry.getMaxBackoff())
+                .jitter(retry.getJitter())
+                .filter(ShoppingResilience::isUpstreamFailure)
+                .doBeforeRetry(signal -> retryCounter.increment())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        if (bulkhead != null) {
+            decorated = decorated.transformDeferred(BulkheadOperator.of(bulkhead));
+        }
+        return decorated
+                .onErrorMap(CallNotPermittedException.class, e -> reject("circuit_open", e))
+                .onErrorMap(BulkheadFullException.class, e -> reject("bulkhead_full", e))
+                .onErrorMap(ShoppingResilience::isPoolExhausted, e -> reject("pool_exhausted", e));
+    }
+
+    private <T> Mono<T> timed(final Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return call.doOnSuccess(value -> sample.stop(attemptTimer));
+        });
+    }
+
+    private <T> Mono<T> hedged(final Mono<T> attempt) {
+        if (!config.getHedge().isEnabled()) {
+            return attempt;
+        }
+        // Whichever request signals first wins, a fast failure of the first request cancels the pending hedge.
+        return Mono.firstWithSignal(attempt, Mono.defer(() -> Mono.delay(hedgeDelay()))
+                .doOnNext(tick -> hedgeCounter.increment())
+                .then(attempt));
+    }
+
+    private Duration hedgeDelay() {
+        ShoppingConfig.Hedge hedge = config.getHedge();
+        if (attemptTimer.count() < hedge.getMinSamples()) {
+            return hedge.getDelay();
+        }
+        for (ValueAtPercentile percentile : attemptTimer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95 && percentile.value() > 0) {
+                return Duration.ofNanos((long) percentile.value(TimeUnit.NANOSECONDS));
+            }
+        }
+        return hedge.getDelay();
+    }
+
+    private ResponseStatusException reject(final String reason, final Throwable cause) {
+        meterRegistry.counter("shopping.client.rejected", "reason", reason).increment();
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Shopping service is unavailable", cause);
+    }
+
+    static boolean isUpstreamFailure(final Throwable error) {
+        return error instanceof ResponseStatusException responseStatusException
+                && responseStatusException.getStatusCode().is5xxServerError()
+                && !isPoolExhausted(error);
+    }
+
+    /**
+     * The pending-acquire queue of the connection pool overflowed, the request never left this instance.
+     */
+    static boolean isPoolExhausted(final Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PoolAcquirePendingLimitException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static CircuitBreaker createCircuitBreaker(final ShoppingConfig.CircuitBreaker config, final MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(config.getFailureRateThreshold())
+                .slowCallRateThreshold(config.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(config.getSlowCallDurationThreshold())
+                .slidingWindowSize(config.getSlidingWindowSize())
+                .minimumNumberOfCalls(config.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(config.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(config.getPermittedNumberOfCallsInHalfOpenState())
+                .recordException(ShoppingResilience::isUpstreamFailure)
+                .ignoreException(ShoppingResilience::isPoolExhausted)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(NAME);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("Shopping service circuit breaker transition {}", event.getStateTransition());
+            meterRegistry.counter("shopping.client.circuitbreaker.transitions",
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name()).increment();
+        });
+        return circuitBreaker;
+    }
+
+    private static Bulkhead createBulkhead(final ShoppingConfig.Bulkhead config, final MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(config.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead(NAME);
+    }
+}
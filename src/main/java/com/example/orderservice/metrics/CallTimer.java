@@ -0,0 +1,65 @@
+package com.example.orderservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records the duration of reactive calls in a timer tagged with {@code method} and {@code outcome}, measured from
+ * subscription to the terminal signal. SLO buckets are configured per timer name under
+ * {@code management.metrics.distribution.slo}.
+ */
+public class CallTimer {
+
+    private final String name;
+    private final MeterRegistry meterRegistry;
+
+    public CallTimer(final String name, final MeterRegistry meterRegistry) {
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Mono<T> time(final String method, final Mono<T> call) {
+        return Mono.defer(() -> {
+            Sample sample = new Sample(method);
+            return call.doOnSuccess(value -> sample.stop(Outcome.SUCCESS))
+                    .doOnError(error -> sample.stop(Outcome.of(error)))
+                    .doOnCancel(() -> sample.stop(Outcome.CANCELLED));
+        });
+    }
+
+    public <T> Flux<T> time(final String method, final Flux<T> call) {
+        return Flux.defer(() -> {
+            Sample sample = new Sample(method);
+            return call.doOnComplete(() -> sample.stop(Outcome.SUCCESS))
+                    .doOnError(error -> sample.stop(Outcome.of(error)))
+                    .doOnCancel(() -> sample.stop(Outcome.CANCELLED));
+        });
+    }
+
+    /**
+     * A cancel can still arrive after a Mono emitted its value, only the first signal is recorded.
+     */
+    private final class Sample {
+
+        private final String method;
+        private final Timer.Sample sample = Timer.start(meterRegistry);
+        private final AtomicBoolean stopped = new AtomicBoolean();
+
+        private Sample(final String method) {
+            this.method = method;
+        }
+
+        private void stop(final Outcome outcome) {
+            if (stopped.compareAndSet(false, true)) {
+                sample.stop(Timer.builder(name)
+                        .tag("method", method)
+                        .tag("outcome", outcome.tag())
+                        .register(meterRegistry));
+            }
+        }
+    }
+}
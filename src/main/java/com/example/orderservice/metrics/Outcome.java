@@ -0,0 +1,40 @@
+package com.example.orderservice.metrics;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.web.reactive.function.client.WebClientException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * How a timed call ended, used as the {@code outcome} tag. Failures of MongoDB or the shopping-service, and the
+ * 5xx errors they are translated to, count as upstream errors.
+ */
+public enum Outcome {
+    SUCCESS,
+    NOT_FOUND,
+    CLIENT_ERROR,
+    UPSTREAM_ERROR,
+    ERROR,
+    CANCELLED;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    public String tag() {
+        return tag;
+    }
+
+    public static Outcome of(final Throwable error) {
+        if (error instanceof ResponseStatusException responseStatusException) {
+            if (responseStatusException.getStatusCode().value() == 404) {
+                return NOT_FOUND;
+            }
+            return responseStatusException.getStatusCode().is4xxClientError() ? CLIENT_ERROR : UPSTREAM_ERROR;
+        }
+        if (error instanceof DataAccessException || error instanceof WebClientException || error instanceof TimeoutException) {
+            return UPSTREAM_ERROR;
+        }
+        return ERROR;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.orderservice.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record BatchOrderRequest(@NotNull UUID cartId, @Valid CustomerInfo customerInfo, @Valid DeliveryInfo deliveryInfo) {
+}
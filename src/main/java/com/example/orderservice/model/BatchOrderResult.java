@@ -0,0 +1,12 @@
+package com.example.orderservice.model;
+
+import java.util.UUID;
+
+public record BatchOrderResult(
+        long index,
+        UUID cartId,
+        UUID orderId,
+        int status,
+        String error
+) {
+}
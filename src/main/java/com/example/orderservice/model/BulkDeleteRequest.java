@@ -0,0 +1,15 @@
+package com.example.orderservice.model;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BulkDeleteRequest(
+        @NotEmpty
+        @Size(max = 1000)
+        List<@NotNull UUID> orderIds
+) {
+}
@@ -0,0 +1,4 @@
+package com.example.orderservice.model;
+
+public record BulkDeleteResult(int requested, long deleted) {
+}
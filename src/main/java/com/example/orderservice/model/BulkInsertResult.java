@@ -0,0 +1,18 @@
+package com.example.orderservice.model;
+
+import java.util.Set;
+
+/**
+ * Outcome of one bulk insert. A failed bulk write still inserts part of the documents, so the indexes of the
+ * documents that were not inserted are reported instead of failing the whole bulk.
+ */
+public record BulkInsertResult(int inserted, Set<Integer> failedIndexes) {
+
+    public static BulkInsertResult of(final int inserted) {
+        return new BulkInsertResult(inserted, Set.of());
+    }
+
+    public boolean isInserted(final int index) {
+        return !failedIndexes.contains(index);
+    }
+}
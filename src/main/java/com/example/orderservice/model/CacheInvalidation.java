@@ -0,0 +1,29 @@
+package com.example.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Order ids whose cached state became stale through a write on the origin instance. The origin is absent when the
+ * transport observes the writes themselves and cannot tell which instance made them.
+ */
+@Document(collection = "order_cache_invalidations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheInvalidation {
+    @Id
+    private String id;
+    private String origin;
+    private List<UUID> orderIds;
+    private Instant issuedAt;
+}
@@ -0,0 +1,4 @@
+package com.example.orderservice.model;
+
+public record FinalizeOrderResult(Order order, boolean changed) {
+}
@@ -0,0 +1,28 @@
+package com.example.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * First successful response to a request carrying an idempotency key. The fingerprint identifies the request, a
+ * key reused for a different request is rejected.
+ */
+@Document(collection = "idempotency_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    @Id
+    private String key;
+    private String fingerprint;
+    private Order order;
+    private boolean changed;
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,7 @@
 package com.example.orderservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,9 +21,27 @@ import java.util.UUID;
 public class Order {
     @Id
     private UUID orderId;
+    /**
+     * Full product graph, only present in orders stored before order lines were introduced.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<Product> products;
+    private List<OrderLine> lines;
     private CustomerInfo customerInfo;
     private DeliveryInfo deliveryInfo;
     private boolean isPaid;
     private LocalDateTime insertDateTime;
+    @JsonIgnore
+    private List<OutboxEvent> outbox;
+
+    /**
+     * Replaces a legacy product list with the equivalent order lines.
+     */
+    public Order withLinesFromProducts() {
+        if (lines == null && products != null) {
+            lines = OrderLine.fromProducts(products);
+            products = null;
+        }
+        return this;
+    }
 }
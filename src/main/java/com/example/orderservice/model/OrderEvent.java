@@ -0,0 +1,14 @@
+package com.example.orderservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Order lifecycle change. The id names the emitting instance and an increasing sequence, and can be sent back as
+ * {@code Last-Event-ID} to resume a stream on the same instance. The order is absent for deletions.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderEvent(String id, OrderEventType type, UUID orderId, LocalDateTime occurredAt, Order order) {
+}
@@ -0,0 +1,7 @@
+package com.example.orderservice.model;
+
+public enum OrderEventType {
+    CREATED,
+    FINALIZED,
+    DELETED
+}
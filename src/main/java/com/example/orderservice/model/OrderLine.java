@@ -0,0 +1,47 @@
+package com.example.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderLine {
+
+    private UUID productId;
+    private String name;
+    private BigDecimal unitPrice;
+    private int quantity;
+    private List<Category> categories;
+
+    /**
+     * Snapshots the products of a shopping cart, repeated products become a single line with a higher quantity.
+     */
+    public static List<OrderLine> fromProducts(final List<Product> products) {
+        if (products == null) {
+            return new ArrayList<>();
+        }
+        Map<Object, OrderLine> lines = new LinkedHashMap<>();
+        for (Product product : products) {
+            Object key = product.getId() != null ? product.getId() : new Object();
+            OrderLine line = lines.computeIfAbsent(key, id -> OrderLine.builder()
+                    .productId(product.getId())
+                    .name(product.getName())
+                    .unitPrice(product.getPrice())
+                    .categories(product.getCategories())
+                    .build());
+            line.setQuantity(line.getQuantity() + 1);
+        }
+        return new ArrayList<>(lines.values());
+    }
+}
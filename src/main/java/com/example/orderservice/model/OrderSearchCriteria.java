@@ -0,0 +1,22 @@
+package com.example.orderservice.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Order listing filters. Pages are sorted by insert time and order id, both descending. The next page is requested
+ * by passing the insert time and order id of the last order received as {@code afterTime} and {@code afterId}.
+ */
+public record OrderSearchCriteria(String email,
+                                  Boolean paid,
+                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                  Category category,
+                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterTime,
+                                  UUID afterId,
+                                  @Min(1) @Max(1000) Integer limit) {
+}
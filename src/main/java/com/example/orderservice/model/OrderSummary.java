@@ -0,0 +1,30 @@
+package com.example.orderservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderSummary {
+    @Id
+    private UUID orderId;
+    private CustomerInfo customerInfo;
+    private DeliveryInfo deliveryInfo;
+    @JsonProperty("paid")
+    private Boolean isPaid;
+    private LocalDateTime insertDateTime;
+    private Integer itemCount;
+    private BigDecimal totalPrice;
+}
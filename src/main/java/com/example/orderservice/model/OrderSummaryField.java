@@ -0,0 +1,46 @@
+package com.example.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bson.Document;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+@Getter
+@AllArgsConstructor
+public enum OrderSummaryField {
+    CUSTOMER_INFO("customerInfo", "customerInfo", 1),
+    DELIVERY_INFO("deliveryInfo", "deliveryInfo", 1),
+    PAID("paid", "isPaid", 1),
+    INSERT_DATE_TIME("insertDateTime", "insertDateTime", 1),
+    ITEM_COUNT("itemCount", "itemCount", linesOrProducts(
+            new Document("$sum", "$lines.quantity"),
+            new Document("$size", products()))),
+    TOTAL_PRICE("totalPrice", "totalPrice", linesOrProducts(
+            new Document("$sum", new Document("$map", new Document("input", "$lines")
+                    .append("as", "line")
+                    .append("in", new Document("$multiply", List.of(new Document("$toDecimal", "$$line.unitPrice"), "$$line.quantity"))))),
+            new Document("$sum", new Document("$map", new Document("input", products())
+                    .append("as", "product")
+                    .append("in", new Document("$toDecimal", "$$product.price"))))));
+
+    private final String name;
+    private final String documentField;
+    private final Object projection;
+
+    public static Optional<OrderSummaryField> fromName(final String name) {
+        return Arrays.stream(values())
+                .filter(field -> field.name.equals(name))
+                .findFirst();
+    }
+
+    private static Document linesOrProducts(final Document fromLines, final Document fromProducts) {
+        return new Document("$cond", List.of(new Document("$isArray", "$lines"), fromLines, fromProducts));
+    }
+
+    private static Document products() {
+        return new Document("$ifNull", List.of("$products", List.of()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Pending notification stored inside the order it is about, so it is written atomically with the order change.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    private UUID eventId;
+    private OrderEventType type;
+    private LocalDateTime createdAt;
+
+    public static OutboxEvent of(final OrderEventType type) {
+        return new OutboxEvent(UUID.randomUUID(), type, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.orderservice.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outbox event handed to the sink together with the state of the order at relay time. Delivery is at least once,
+ * consumers deduplicate by event id.
+ */
+public record OutboxMessage(UUID eventId, OrderEventType type, UUID orderId, LocalDateTime createdAt, Order order) {
+}
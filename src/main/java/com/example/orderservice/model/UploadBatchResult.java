@@ -0,0 +1,20 @@
+package com.example.orderservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of one bulk insert of an upload. The ids of the orders that were inserted are only present when they were
+ * requested.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UploadBatchResult(
+        long batch,
+        int orders,
+        int inserted,
+        long durationMillis,
+        List<UUID> orderIds
+) {
+}
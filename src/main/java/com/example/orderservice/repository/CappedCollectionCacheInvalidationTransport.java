@@ -0,0 +1,86 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.CacheInvalidation;
+import com.example.orderservice.service.CacheInvalidationTransport;
+import com.example.orderservice.service.OrderCacheConfig;
+import com.mongodb.MongoCommandException;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Publishes invalidations into a capped collection that every instance tails, which also works against a standalone
+ * MongoDB. The tail is reopened after the last seen invalidation when its cursor dies, so none is missed unless the
+ * capped collection wrapped around in between.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.cache.invalidation", name = "transport", havingValue = "capped-collection")
+@Slf4j
+public class CappedCollectionCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final int NAMESPACE_EXISTS = 48;
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final OrderCacheConfig.Invalidation config;
+    private final Instant startedAt = Instant.now();
+    private volatile String lastId;
+
+    public CappedCollectionCacheInvalidationTransport(final ReactiveMongoOperations mongoOperations, final OrderCacheConfig config) {
+        this.mongoOperations = mongoOperations;
+        this.config = config.getInvalidation();
+    }
+
+    @Override
+    public Mono<Void> publish(final CacheInvalidation invalidation) {
+        return mongoOperations.insert(invalidation).then();
+    }
+
+    @Override
+    public Flux<CacheInvalidation> invalidations() {
+        return ensureCollection()
+                .thenMany(Flux.defer(this::tail))
+                // A tailable cursor also ends without an error, for instance while the collection is still empty.
+                .repeatWhen(completed -> completed.delayElements(config.getTailRetryDelay()))
+                .doOnError(err -> log.warn("Order cache invalidation tail failed, reopening", err))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .doOnNext(invalidation -> lastId = invalidation.getId());
+    }
+
+    private Flux<CacheInvalidation> tail() {
+        Query query = lastId != null
+                ? Query.query(where("id").gt(new ObjectId(lastId)))
+                : Query.query(where("issuedAt").gte(startedAt));
+        return mongoOperations.tail(query, CacheInvalidation.class);
+    }
+
+    private Mono<Void> ensureCollection() {
+        return mongoOperations.collectionExists(CacheInvalidation.class)
+                .flatMap(exists -> exists ? Mono.<Void>empty() : createCollection());
+    }
+
+    /**
+     * Another instance may create the collection at the same time, which is fine.
+     */
+    private Mono<Void> createCollection() {
+        return mongoOperations.createCollection(CacheInvalidation.class, CollectionOptions.empty()
+                        .capped()
+                        .size(config.getCollectionSize().toBytes())
+                        .maxDocuments(config.getCollectionMaxDocuments()))
+                .then()
+                .onErrorResume(MongoCommandException.class, e -> e.getErrorCode() == NAMESPACE_EXISTS
+                        ? Mono.empty()
+                        : Mono.error(e));
+    }
+}
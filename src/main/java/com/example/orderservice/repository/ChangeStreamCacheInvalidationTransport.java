@@ -0,0 +1,62 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.CacheInvalidation;
+import com.example.orderservice.service.CacheInvalidationTransport;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Derives invalidations from the {@link OrderChangeStream}, so every writer is seen without publishing anything, but
+ * MongoDB has to run as a replica set. Only the document keys of the changes are used.
+ * <p>
+ * A change event does not tell which instance made the change, so the changes made by this instance come back as
+ * well and evict the order it has just cached. Every finalize therefore costs one extra cache miss on the instance
+ * that made it; the outbox updates that follow are not order changes and never reach the stream. Filtering
+ * changes out by id would also drop a concurrent change made elsewhere.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.cache.invalidation", name = "transport", havingValue = "change-stream")
+@RequiredArgsConstructor
+public class ChangeStreamCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final OrderChangeStream orderChangeStream;
+
+    @Override
+    public Mono<Void> publish(final CacheInvalidation invalidation) {
+        return Mono.empty();
+    }
+
+    /**
+     * Inserts are left out, a created order has a fresh id that no instance can have cached.
+     */
+    @Override
+    public Flux<CacheInvalidation> invalidations() {
+        return orderChangeStream.changes()
+                .filter(event -> event.getOperationType() != OperationType.INSERT)
+                .handle((event, sink) -> {
+                    ChangeStreamDocument<Document> raw = event.getRaw();
+                    if (raw != null && raw.getDocumentKey() != null) {
+                        sink.next(toInvalidation(raw));
+                    }
+                });
+    }
+
+    private static CacheInvalidation toInvalidation(final ChangeStreamDocument<Document> raw) {
+        Instant issuedAt = raw.getWallTime() != null
+                ? Instant.ofEpochMilli(raw.getWallTime().getValue())
+                : Instant.now();
+        return CacheInvalidation.builder()
+                .orderIds(List.of(OrderChangeStreamListener.orderId(raw)))
+                .issuedAt(issuedAt)
+                .build();
+    }
+}
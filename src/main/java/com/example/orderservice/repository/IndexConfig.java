@@ -0,0 +1,18 @@
+package com.example.orderservice.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "order.indexes")
+@Getter
+@Setter
+public class IndexConfig {
+
+    /**
+     * Whether the indexes used by repository queries are created and verified on startup.
+     */
+    private boolean enabled = true;
+}
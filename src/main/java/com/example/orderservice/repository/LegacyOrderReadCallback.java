@@ -0,0 +1,21 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import org.bson.Document;
+import org.reactivestreams.Publisher;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveAfterConvertCallback;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves orders stored with the full product graph in the order line shape, so readers never have to deal with
+ * both representations.
+ */
+@Component
+public class LegacyOrderReadCallback implements ReactiveAfterConvertCallback<Order> {
+
+    @Override
+    public Publisher<Order> onAfterConvert(final Order order, final Document document, final String collection) {
+        return Mono.just(order.withLinesFromProducts());
+    }
+}
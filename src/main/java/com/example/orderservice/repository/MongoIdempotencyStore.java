@@ -0,0 +1,58 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.IdempotencyRecord;
+import com.example.orderservice.service.IdempotencyConfig;
+import com.example.orderservice.service.IdempotencyStore;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keeps idempotency records in MongoDB, so a retry reaching another instance still gets the stored response.
+ * Records expire through a TTL index on their creation time.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.idempotency", name = "store", havingValue = "mongo")
+@AllArgsConstructor
+@Slf4j
+public class MongoIdempotencyStore implements IdempotencyStore {
+
+    public static final String CREATED_AT_INDEX = "createdAt_1";
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final IdempotencyConfig config;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        mongoOperations.indexOps(IdempotencyRecord.class)
+                .ensureIndex(new Index().on("createdAt", Sort.Direction.ASC)
+                        .expire(config.getTtl())
+                        .named(CREATED_AT_INDEX))
+                .doOnError(err -> log.error("Error occurred during idempotency key index provisioning", err))
+                .subscribe();
+    }
+
+    @Override
+    public Mono<IdempotencyRecord> find(final String key) {
+        // The TTL monitor only runs periodically, so expired records may still be around for a while.
+        return mongoOperations.findById(key, IdempotencyRecord.class)
+                .filter(record -> record.getCreatedAt().isAfter(LocalDateTime.now().minus(config.getTtl())));
+    }
+
+    @Override
+    public Mono<Void> save(final IdempotencyRecord record) {
+        return mongoOperations.insert(record)
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.empty())
+                .then();
+    }
+}
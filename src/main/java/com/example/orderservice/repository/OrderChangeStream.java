@@ -0,0 +1,92 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.service.OrderEventConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The one change stream on the orders collection, shared by everything that follows changes to orders so that an
+ * instance keeps a single cursor open however many consumers there are. It is opened with the first subscriber and
+ * reopened after the last seen resume token when it fails, so no change is missed.
+ * <p>
+ * Updates that only touch the outbox or its lease are dropped on the server: they do not change the order as clients
+ * see it, and every order goes through several of them on its way to the relay.
+ */
+@Component
+@Slf4j
+public class OrderChangeStream {
+
+    /**
+     * Update paths that are bookkeeping of the outbox relay rather than changes to the order.
+     */
+    private static final String OUTBOX_PATHS = "^outbox(Lease)?(\\.|$)";
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final OrderEventConfig eventConfig;
+    private final Flux<ChangeStreamEvent<Order>> changes;
+    private volatile BsonValue resumeToken;
+
+    public OrderChangeStream(final ReactiveMongoOperations mongoOperations, final OrderEventConfig eventConfig) {
+        this.mongoOperations = mongoOperations;
+        this.eventConfig = eventConfig;
+        this.changes = Flux.defer(this::open)
+                .doOnNext(event -> resumeToken = event.getResumeToken())
+                .doOnError(err -> log.warn("Order change stream failed, reopening", err))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .share();
+    }
+
+    /**
+     * Inserts, replacements, deletions and updates of the order itself. The stream does not complete.
+     */
+    public Flux<ChangeStreamEvent<Order>> changes() {
+        return changes;
+    }
+
+    private Flux<ChangeStreamEvent<Order>> open() {
+        boolean events = eventConfig.getSource() == OrderEventConfig.Source.CHANGE_STREAM;
+        return mongoOperations.changeStream(Order.class)
+                .withOptions(options -> {
+                    options.filter(new Document("$match", filter(events)));
+                    if (resumeToken != null) {
+                        options.resumeAfter(resumeToken);
+                    }
+                })
+                .watchCollection(Order.class)
+                .listen();
+    }
+
+    /**
+     * Inserts only matter to order events, a created order has a fresh id that no cache can hold. Updates come
+     * without the full document, consumers that need it look it up for the few updates they act on.
+     */
+    private static Document filter(final boolean inserts) {
+        List<String> operations = new ArrayList<>(List.of("replace", "delete"));
+        if (inserts) {
+            operations.add("insert");
+        }
+        Document changedPaths = new Document("$concatArrays", List.of(
+                new Document("$map", new Document("input", new Document("$objectToArray", "$updateDescription.updatedFields"))
+                        .append("as", "field")
+                        .append("in", "$$field.k")),
+                new Document("$ifNull", List.of("$updateDescription.removedFields", List.of()))));
+        Document changesOrder = new Document("$anyElementTrue", List.of(new Document("$map", new Document("input", changedPaths)
+                .append("as", "path")
+                .append("in", new Document("$not", List.of(new Document("$regexMatch",
+                        new Document("input", "$$path").append("regex", OUTBOX_PATHS))))))));
+        return new Document("$or", List.of(
+                new Document("operationType", new Document("$in", operations)),
+                new Document("operationType", "update").append("$expr", changesOrder)));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderEventType;
+import com.example.orderservice.service.OrderEventBus;
+import com.example.orderservice.service.OrderEventConfig;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonBinary;
+import org.bson.BsonBinarySubType;
+import org.bson.Document;
+import org.bson.UuidRepresentation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Feeds the {@link OrderEventBus} from the {@link OrderChangeStream} when events are sourced from MongoDB.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderChangeStreamListener {
+
+    private final OrderChangeStream orderChangeStream;
+    private final ReactiveMongoOperations mongoOperations;
+    private final OrderEventConfig config;
+    private final OrderEventBus orderEventBus;
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (config.getSource() != OrderEventConfig.Source.CHANGE_STREAM) {
+            return;
+        }
+        subscription = orderChangeStream.changes()
+                .concatMap(this::publish)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Only finalizing updates carry an event, so only they look the order up, after the update has been observed.
+     * Events are published in stream order even while a lookup is in flight.
+     */
+    private Mono<Void> publish(final ChangeStreamEvent<Order> event) {
+        ChangeStreamDocument<Document> raw = event.getRaw();
+        if (raw == null || event.getOperationType() == null) {
+            return Mono.empty();
+        }
+        UUID orderId = orderId(raw);
+        return switch (event.getOperationType()) {
+            case INSERT -> Mono.fromRunnable(() -> orderEventBus.publish(OrderEventType.CREATED, orderId, event.getBody()));
+            case UPDATE -> isFinalize(raw)
+                    ? mongoOperations.findById(orderId, Order.class)
+                            .map(Optional::of)
+                            .onErrorResume(err -> {
+                                log.warn("Could not look up finalized order {}, publishing without it", orderId, err);
+                                return Mono.empty();
+                            })
+                            .defaultIfEmpty(Optional.empty())
+                            .doOnNext(order -> orderEventBus.publish(OrderEventType.FINALIZED, orderId, order.orElse(null)))
+                            .then()
+                    : Mono.empty();
+            case DELETE -> Mono.fromRunnable(() -> orderEventBus.publish(OrderEventType.DELETED, orderId, null));
+            default -> Mono.empty();
+        };
+    }
+
+    private static boolean isFinalize(final ChangeStreamDocument<Document> raw) {
+        return raw.getUpdateDescription() != null && raw.getUpdateDescription().getUpdatedFields() != null
+                && raw.getUpdateDescription().getUpdatedFields().containsKey("isPaid");
+    }
+
+    static UUID orderId(final ChangeStreamDocument<Document> raw) {
+        BsonBinary id = raw.getDocumentKey().getBinary("_id");
+        return id.getType() == BsonBinarySubType.UUID_STANDARD.getValue()
+                ? id.asUuid()
+                : id.asUuid(UuidRepresentation.JAVA_LEGACY);
+    }
+}
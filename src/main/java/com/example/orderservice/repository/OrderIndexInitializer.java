@@ -0,0 +1,179 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.service.RetentionConfig;
+import com.mongodb.MongoCommandException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Provisions the indexes backing {@link OrderRepository} queries. Lookups by order id use the built-in unique
+ * {@code _id} index, since {@code orderId} is mapped to {@code _id}.
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class OrderIndexInitializer {
+
+    public static final String ID_INDEX = "_id_";
+    public static final String INSERT_DATE_TIME_INDEX = "insertDateTime_1";
+    public static final String LISTING_INDEX = "insertDateTime_-1__id_-1";
+    public static final String EMAIL_LISTING_INDEX = "customerInfo.email_1_insertDateTime_-1__id_-1";
+    public static final String PAID_LISTING_INDEX = "isPaid_1_insertDateTime_-1__id_-1";
+    public static final String CATEGORY_LISTING_INDEX = "lines.categories_1_insertDateTime_-1__id_-1";
+    public static final String LEGACY_CATEGORY_LISTING_INDEX = "products.categories_1_insertDateTime_-1__id_-1";
+    public static final String OUTBOX_INDEX = "outbox.createdAt_1";
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final IndexConfig config;
+    private final RetentionConfig retentionConfig;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        ensureIndexes()
+                .doOnSuccess(s -> log.info("Order indexes are in place"))
+                .doOnError(err -> log.error("Error occurred during order indexes provisioning", err))
+                .subscribe();
+    }
+
+    public Mono<Void> ensureIndexes() {
+        ReactiveIndexOperations indexOps = mongoOperations.indexOps(Order.class);
+        return dropUnusedTtlIndex(indexOps)
+                .thenMany(Flux.fromIterable(orderIndexes()))
+                .concatMap(index -> indexOps.ensureIndex(index)
+                        .onErrorResume(MongoCommandException.class, e -> e.getErrorCode() == INDEX_OPTIONS_CONFLICT
+                                ? updateIndexOptions(index)
+                                : Mono.error(e)))
+                .then(verifyIndexes(indexOps));
+    }
+
+    /**
+     * Changing the retention max age leaves an existing TTL index with different options in place, which is then
+     * updated in place with collMod instead of failing startup.
+     */
+    private Mono<String> updateIndexOptions(final Index index) {
+        Document indexOptions = index.getIndexOptions();
+        if (!indexOptions.containsKey("expireAfterSeconds")) {
+            return Mono.error(new IllegalStateException("Index " + indexOptions.getString("name")
+                    + " conflicts with an existing index and has to be dropped manually"));
+        }
+        Document collMod = new Document("collMod", mongoOperations.getCollectionName(Order.class))
+                .append("index", new Document("keyPattern", index.getIndexKeys())
+                        .append("expireAfterSeconds", indexOptions.get("expireAfterSeconds")));
+        log.info("Updating options of order index {}", indexOptions.getString("name"));
+        return mongoOperations.executeCommand(collMod)
+                .thenReturn(indexOptions.getString("name"));
+    }
+
+    /**
+     * Chunked retention seeks on the listing index, so the TTL index is only kept while MongoDB expires the orders;
+     * left in place after switching modes, both would be deleting.
+     */
+    private Mono<Void> dropUnusedTtlIndex(final ReactiveIndexOperations indexOps) {
+        if (retentionConfig.getMode() == RetentionConfig.Mode.TTL) {
+            return Mono.empty();
+        }
+        return indexOps.getIndexInfo()
+                .filter(index -> index.getName().equals(INSERT_DATE_TIME_INDEX))
+                .concatMap(index -> {
+                    log.info("Dropping order index {}, orders are expired in chunks", INSERT_DATE_TIME_INDEX);
+                    return indexOps.dropIndex(INSERT_DATE_TIME_INDEX);
+                })
+                .then();
+    }
+
+    List<Index> orderIndexes() {
+        List<Index> indexes = new ArrayList<>(List.of(
+                listingIndex(null, LISTING_INDEX),
+                listingIndex("customerInfo.email", EMAIL_LISTING_INDEX),
+                listingIndex("isPaid", PAID_LISTING_INDEX),
+                listingIndex("lines.categories", CATEGORY_LISTING_INDEX),
+                legacyCategoryListingIndex(),
+                outboxIndex()
+        ));
+        if (retentionConfig.getMode() == RetentionConfig.Mode.TTL) {
+            indexes.add(ttlIndex());
+        }
+        return indexes;
+    }
+
+    /**
+     * Only orders with pending outbox events are indexed, so the relay poll stays cheap however many orders exist.
+     */
+    private Index outboxIndex() {
+        return new Index().on("outbox.createdAt", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(where("outbox.0").exists(true)))
+                .named(OUTBOX_INDEX);
+    }
+
+    /**
+     * Equality filter first, then the listing sort keys, so a filtered page is read in index order without a
+     * blocking sort.
+     */
+    private Index listingIndex(final String filterField, final String name) {
+        Index index = new Index();
+        if (filterField != null) {
+            index.on(filterField, Sort.Direction.ASC);
+        }
+        return index.on("insertDateTime", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named(name);
+    }
+
+    /**
+     * Category listings also match orders stored with full products, which only this partial index covers, so it
+     * shrinks as those orders expire and costs nothing for orders stored as lines.
+     */
+    private Index legacyCategoryListingIndex() {
+        return listingIndex("products.categories", LEGACY_CATEGORY_LISTING_INDEX)
+                .partial(PartialIndexFilter.of(where("products.categories").exists(true)));
+    }
+
+    private Index ttlIndex() {
+        return new Index().on("insertDateTime", Sort.Direction.ASC)
+                .expire(retentionConfig.getMaxAge())
+                .named(INSERT_DATE_TIME_INDEX);
+    }
+
+    private Mono<Void> verifyIndexes(final ReactiveIndexOperations indexOps) {
+        Set<String> expected = orderIndexes().stream()
+                .map(index -> index.getIndexOptions().getString("name"))
+                .collect(Collectors.toCollection(HashSet::new));
+        expected.add(ID_INDEX);
+        return indexOps.getIndexInfo()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet())
+                .flatMap(existing -> {
+                    Set<String> missing = expected.stream()
+                            .filter(name -> !existing.contains(name))
+                            .collect(Collectors.toSet());
+                    return missing.isEmpty()
+                            ? Mono.empty()
+                            : Mono.error(new IllegalStateException("Missing order indexes: " + missing));
+                });
+    }
+}
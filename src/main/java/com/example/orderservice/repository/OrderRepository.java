@@ -4,14 +4,14 @@ import com.example.orderservice.model.Order;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Mono;
 
-import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.UUID;
 
-public interface OrderRepository extends ReactiveMongoRepository<Order, String> {
+public interface OrderRepository extends ReactiveMongoRepository<Order, UUID>, OrderRepositoryCustom {
 
     Mono<Order> findOrderByOrderId(UUID orderId);
 
-    Mono<Void> deleteOrderByOrderId(UUID orderId);
+    Mono<Long> deleteOrderByOrderId(UUID orderId);
 
-    Mono<Void> deleteByInsertDateTimeBefore(LocalDateTime time);
+    Mono<Long> deleteByOrderIdIn(Collection<UUID> orderIds);
 }
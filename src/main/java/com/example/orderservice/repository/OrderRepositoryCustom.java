@@ -0,0 +1,57 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.BulkInsertResult;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderSearchCriteria;
+import com.example.orderservice.model.OrderSummary;
+import com.example.orderservice.model.OrderSummaryField;
+import com.example.orderservice.model.OutboxEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Inserts the orders in one bulk write. When the write fails partway, the result reports which orders were not
+     * inserted; an ordered bulk stops at the first failure, so every order after it counts as not inserted.
+     */
+    Mono<BulkInsertResult> bulkInsert(List<Order> orders, boolean ordered);
+
+    /**
+     * Marks an unpaid order as paid and records the outbox event in the same update.
+     */
+    Mono<Order> markPaid(UUID orderId, OutboxEvent outboxEvent);
+
+    /**
+     * Claims up to {@code limit} orders with pending events for {@code claimId} until the lease expires, so relays on
+     * other instances skip them meanwhile, and emits the orders claimed.
+     */
+    Flux<Order> claimOrdersWithPendingOutbox(String claimId, int limit, Duration leaseDuration);
+
+    /**
+     * Removes delivered events and releases the orders still claimed by {@code claimId}.
+     */
+    Mono<Void> removeOutboxEvents(String claimId, Map<UUID, List<UUID>> eventIdsByOrderId);
+
+    Mono<Void> releaseOutboxClaim(String claimId);
+
+    Mono<OrderSummary> findOrderSummary(UUID orderId, Set<OrderSummaryField> fields);
+
+    Flux<Order> findOrders(OrderSearchCriteria criteria, int limit);
+
+    /**
+     * Orders inserted before {@code cutoff}, oldest first and with only their id and insert time read. The next
+     * chunk is requested by passing the insert time and order id of the last order received.
+     */
+    Flux<Order> findExpiredOrders(LocalDateTime cutoff, LocalDateTime afterTime, UUID afterOrderId, int limit);
+
+    Mono<Long> deleteExpiredOrders(Collection<UUID> orderIds, LocalDateTime cutoff);
+}
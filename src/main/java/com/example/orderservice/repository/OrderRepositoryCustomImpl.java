@@ -0,0 +1,235 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.BulkInsertResult;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderSearchCriteria;
+import com.example.orderservice.model.OrderSummary;
+import com.example.orderservice.model.OrderSummaryField;
+import com.example.orderservice.model.OutboxEvent;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.DeleteResult;
+import lombok.AllArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@AllArgsConstructor
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private static final String OUTBOX_LEASE = "outboxLease";
+    private static final String OUTBOX_LEASE_OWNER = OUTBOX_LEASE + ".owner";
+    private static final String OUTBOX_LEASE_EXPIRES_AT = OUTBOX_LEASE + ".expiresAt";
+    private static final Sort OUTBOX_ORDER = Sort.by(Sort.Direction.ASC, "outbox.createdAt");
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<BulkInsertResult> bulkInsert(final List<Order> orders, final boolean ordered) {
+        return mongoOperations.bulkOps(ordered ? BulkMode.ORDERED : BulkMode.UNORDERED, Order.class)
+                .insert(orders)
+                .execute()
+                .map(result -> BulkInsertResult.of(result.getInsertedCount()))
+                .onErrorResume(error -> partialInsert(error, orders.size(), ordered)
+                        .map(Mono::just)
+                        .orElseGet(() -> Mono.error(error)));
+    }
+
+    /**
+     * The bulk write error may arrive raw or translated, so the cause chain is searched for it. Errors without a
+     * per-document breakdown are not partial and are left to propagate.
+     */
+    private static Optional<BulkInsertResult> partialInsert(final Throwable error, final int size, final boolean ordered) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BulkOperationException bulkOperationException) {
+                return Optional.of(partialInsert(bulkOperationException.getResult().getInsertedCount(), bulkOperationException.getErrors(), size, ordered));
+            }
+            if (cause instanceof MongoBulkWriteException mongoBulkWriteException) {
+                return Optional.of(partialInsert(mongoBulkWriteException.getWriteResult().getInsertedCount(), mongoBulkWriteException.getWriteErrors(), size, ordered));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static BulkInsertResult partialInsert(final int inserted, final List<BulkWriteError> errors, final int size, final boolean ordered) {
+        Set<Integer> failedIndexes = errors.stream()
+                .map(BulkWriteError::getIndex)
+                .collect(Collectors.toSet());
+        if (ordered && !failedIndexes.isEmpty()) {
+            IntStream.range(errors.get(0).getIndex(), size).forEach(failedIndexes::add);
+        }
+        return new BulkInsertResult(inserted, Set.copyOf(failedIndexes));
+    }
+
+    @Override
+    public Mono<Order> markPaid(final UUID orderId, final OutboxEvent outboxEvent) {
+        return mongoOperations.findAndModify(
+                query(where("orderId").is(orderId).and("isPaid").is(false)),
+                new Update().set("isPaid", true).push("outbox", outboxEvent),
+                FindAndModifyOptions.options().returnNew(true),
+                Order.class);
+    }
+
+    /**
+     * Candidates are read from the partial outbox index, oldest event first, and then claimed with one conditional
+     * update, so an order already claimed by another relay in between is left out. The lease is stored next to the
+     * outbox and is not mapped onto {@link Order}.
+     */
+    @Override
+    public Flux<Order> claimOrdersWithPendingOutbox(final String claimId, final int limit, final Duration leaseDuration) {
+        LocalDateTime now = LocalDateTime.now();
+        Query candidates = query(claimable(now))
+                .with(OUTBOX_ORDER)
+                .limit(limit);
+        candidates.fields().include("orderId");
+        return mongoOperations.find(candidates, Order.class)
+                .map(Order::getOrderId)
+                .collectList()
+                .filter(orderIds -> !orderIds.isEmpty())
+                .flatMap(orderIds -> mongoOperations.updateMulti(
+                        query(claimable(now).and("orderId").in(orderIds)),
+                        new Update().set(OUTBOX_LEASE_OWNER, claimId).set(OUTBOX_LEASE_EXPIRES_AT, now.plus(leaseDuration)),
+                        Order.class))
+                .flatMapMany(result -> mongoOperations.find(query(claimedBy(claimId)).with(OUTBOX_ORDER), Order.class));
+    }
+
+    @Override
+    public Mono<Void> removeOutboxEvents(final String claimId, final Map<UUID, List<UUID>> eventIdsByOrderId) {
+        if (eventIdsByOrderId.isEmpty()) {
+            return Mono.empty();
+        }
+        ReactiveBulkOperations bulkOps = mongoOperations.bulkOps(BulkMode.UNORDERED, Order.class);
+        eventIdsByOrderId.forEach((orderId, eventIds) -> bulkOps
+                .updateOne(query(where("orderId").is(orderId)),
+                        new Update().pull("outbox", query(where("eventId").in(eventIds)).getQueryObject()))
+                .updateOne(query(where("orderId").is(orderId).and(OUTBOX_LEASE_OWNER).is(claimId)),
+                        new Update().unset(OUTBOX_LEASE)));
+        return bulkOps.execute().then();
+    }
+
+    @Override
+    public Mono<Void> releaseOutboxClaim(final String claimId) {
+        return mongoOperations.updateMulti(query(claimedBy(claimId)), new Update().unset(OUTBOX_LEASE), Order.class)
+                .then();
+    }
+
+    private static Criteria claimable(final LocalDateTime now) {
+        return where("outbox.0").exists(true)
+                .orOperator(where(OUTBOX_LEASE_EXPIRES_AT).exists(false), where(OUTBOX_LEASE_EXPIRES_AT).lte(now));
+    }
+
+    /**
+     * Keeps the pending-outbox filter so the lookup stays on the partial outbox index.
+     */
+    private static Criteria claimedBy(final String claimId) {
+        return where("outbox.0").exists(true).and(OUTBOX_LEASE_OWNER).is(claimId);
+    }
+
+    @Override
+    public Mono<OrderSummary> findOrderSummary(final UUID orderId, final Set<OrderSummaryField> fields) {
+        Document projection = new Document();
+        fields.forEach(field -> projection.append(field.getDocumentField(), field.getProjection()));
+        TypedAggregation<Order> aggregation = Aggregation.newAggregation(Order.class,
+                Aggregation.match(where("orderId").is(orderId)),
+                Aggregation.stage(new Document("$project", projection)));
+        return mongoOperations.aggregate(aggregation, OrderSummary.class)
+                .next();
+    }
+
+    /**
+     * Seeks past the cursor instead of skipping, so every page is a bounded index scan on
+     * {@code (insertDateTime, _id)} regardless of how deep it is.
+     */
+    @Override
+    public Flux<Order> findOrders(final OrderSearchCriteria criteria, final int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (criteria.email() != null) {
+            filters.add(where("customerInfo.email").is(criteria.email()));
+        }
+        if (criteria.paid() != null) {
+            filters.add(where("isPaid").is(criteria.paid()));
+        }
+        if (criteria.from() != null || criteria.to() != null) {
+            Criteria insertDateTime = where("insertDateTime");
+            if (criteria.from() != null) {
+                insertDateTime = insertDateTime.gte(criteria.from());
+            }
+            if (criteria.to() != null) {
+                insertDateTime = insertDateTime.lt(criteria.to());
+            }
+            filters.add(insertDateTime);
+        }
+        if (criteria.category() != null) {
+            // Orders stored before order lines were introduced only carry the categories on their products.
+            filters.add(new Criteria().orOperator(
+                    where("lines.categories").is(criteria.category()),
+                    where("products.categories").is(criteria.category())));
+        }
+        if (criteria.afterTime() != null) {
+            filters.add(where("insertDateTime").lte(criteria.afterTime()));
+            filters.add(new Criteria().orOperator(
+                    where("insertDateTime").lt(criteria.afterTime()),
+                    where("insertDateTime").is(criteria.afterTime()).and("orderId").lt(criteria.afterId())));
+        }
+        Query query = new Query(filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters))
+                .with(Sort.by(Sort.Direction.DESC, "insertDateTime", "orderId"))
+                .limit(limit);
+        return mongoOperations.find(query, Order.class);
+    }
+
+    /**
+     * Seeks on {@code (insertDateTime, _id)} in ascending order, which the listing index serves read backwards, so
+     * every chunk is a bounded index scan without a blocking sort.
+     */
+    @Override
+    public Flux<Order> findExpiredOrders(final LocalDateTime cutoff, final LocalDateTime afterTime, final UUID afterOrderId, final int limit) {
+        Criteria criteria = where("insertDateTime").lt(cutoff);
+        if (afterTime != null) {
+            criteria = new Criteria().andOperator(
+                    criteria,
+                    where("insertDateTime").gte(afterTime),
+                    new Criteria().orOperator(
+                            where("insertDateTime").gt(afterTime),
+                            where("insertDateTime").is(afterTime).and("orderId").gt(afterOrderId)));
+        }
+        Query query = query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "insertDateTime", "orderId"))
+                .limit(limit);
+        query.fields().include("orderId", "insertDateTime");
+        return mongoOperations.find(query, Order.class);
+    }
+
+    @Override
+    public Mono<Long> deleteExpiredOrders(final Collection<UUID> orderIds, final LocalDateTime cutoff) {
+        Query query = query(where("orderId").in(orderIds)
+                .and("insertDateTime").lt(cutoff));
+        return mongoOperations.remove(query, Order.class)
+                .map(DeleteResult::getDeletedCount);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.metrics.CallTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+import org.springframework.util.function.SingletonSupplier;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times every reactive repository method in the {@code order.repository} timer. The registry is looked up on first
+ * use, as resolving it while post processors are created would bypass its meter filters.
+ */
+@Component
+public class TimedRepositoryPostProcessor implements BeanPostProcessor {
+
+    private final SingletonSupplier<CallTimer> callTimer;
+
+    public TimedRepositoryPostProcessor(final ObjectProvider<MeterRegistry> meterRegistry) {
+        this.callTimer = SingletonSupplier.of(() -> new CallTimer("order.repository", meterRegistry.getObject()));
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+            repositoryFactoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(timingInterceptor())));
+        }
+        return bean;
+    }
+
+    private MethodInterceptor timingInterceptor() {
+        return invocation -> {
+            Object result = invocation.proceed();
+            String method = invocation.getMethod().getName();
+            if (result instanceof Mono<?> mono) {
+                return callTimer.obtain().time(method, mono);
+            }
+            if (result instanceof Flux<?> flux) {
+                return callTimer.obtain().time(method, flux);
+            }
+            return result;
+        };
+    }
+}
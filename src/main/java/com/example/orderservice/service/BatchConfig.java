@@ -0,0 +1,35 @@
+package com.example.orderservice.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.batch")
+@Getter
+@Setter
+public class BatchConfig {
+
+    /**
+     * Number of shopping carts fetched concurrently for a single batch request.
+     */
+    private int cartConcurrency = 16;
+
+    /**
+     * Maximum number of orders written with a single bulk insert.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Maximum time a partially filled batch waits for more orders before it is written.
+     */
+    private Duration batchWindow = Duration.ofMillis(100);
+
+    /**
+     * Number of bulk inserts that may be in flight at the same time.
+     */
+    private int maxInFlightBatches = 2;
+}
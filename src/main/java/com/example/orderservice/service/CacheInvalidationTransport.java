@@ -0,0 +1,19 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.CacheInvalidation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Carries order cache invalidations between the instances sharing the orders collection.
+ */
+public interface CacheInvalidationTransport {
+
+    Mono<Void> publish(CacheInvalidation invalidation);
+
+    /**
+     * Invalidations published from now on by any instance, including this one. The stream does not complete and
+     * recovers from transport failures on its own.
+     */
+    Flux<CacheInvalidation> invalidations();
+}
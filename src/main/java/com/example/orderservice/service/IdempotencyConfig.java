@@ -0,0 +1,37 @@
+package com.example.orderservice.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.idempotency")
+@Getter
+@Setter
+public class IdempotencyConfig {
+
+    /**
+     * MEMORY keeps responses in a bounded in-process cache, MONGO shares them between instances in a collection
+     * expired through a TTL index.
+     */
+    private Store store = Store.MEMORY;
+
+    /**
+     * How long a stored response is replayed for its key.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Maximum number of keys kept by the MEMORY store. Beyond it Caffeine evicts by its W-TinyLFU policy, which
+     * favours keys that are used often and recently, not strictly the least recently used ones.
+     */
+    private long maxSize = 100_000;
+
+    public enum Store {
+        MEMORY,
+        MONGO
+    }
+}
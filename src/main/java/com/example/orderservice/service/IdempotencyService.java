@@ -0,0 +1,102 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.FinalizeOrderResult;
+import com.example.orderservice.model.IdempotencyRecord;
+import com.example.orderservice.model.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Executes a request at most once per idempotency key. Replays are answered from the store, and concurrent
+ * duplicates received by this instance wait for the execution already in flight instead of starting another one.
+ * Only successful responses are stored, a failed request can be retried with the same key.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String KEY_REUSED = "Idempotency-Key was already used for a different request";
+    public static final String INVALID_KEY = "Idempotency-Key must have between 1 and 255 characters";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Mono<Execution>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(final IdempotencyStore store, final ObjectMapper objectMapper, final MeterRegistry meterRegistry) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Identifies a request by its operation and a SHA-256 digest of its serialized body.
+     */
+    public String fingerprint(final String operation, final Object body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(body));
+            return operation + ":" + HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint " + operation + " request", e);
+        }
+    }
+
+    public Mono<Order> executeCreate(final String key, final String fingerprint, final Supplier<Mono<Order>> request) {
+        return execute(key, fingerprint, () -> request.get().map(order -> new Response(order, false)))
+                .map(IdempotencyRecord::getOrder);
+    }
+
+    public Mono<FinalizeOrderResult> executeFinalize(final String key, final String fingerprint, final Supplier<Mono<FinalizeOrderResult>> request) {
+        return execute(key, fingerprint, () -> request.get().map(result -> new Response(result.order(), result.changed())))
+                .map(record -> new FinalizeOrderResult(record.getOrder(), record.isChanged()));
+    }
+
+    private Mono<IdempotencyRecord> execute(final String key, final String fingerprint, final Supplier<Mono<Response>> request) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_KEY));
+        }
+        AtomicBoolean started = new AtomicBoolean();
+        Mono<Execution> execution = inFlight.computeIfAbsent(key, k -> {
+            started.set(true);
+            return store.find(k)
+                    .map(record -> new Execution(record, true))
+                    .switchIfEmpty(Mono.defer(() -> executeAndStore(k, fingerprint, request)))
+                    .doFinally(signal -> inFlight.remove(k))
+                    .cache();
+        });
+        return execution.flatMap(result -> {
+            if (!result.record().getFingerprint().equals(fingerprint)) {
+                return Mono.error(new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, KEY_REUSED));
+            }
+            String outcome = !started.get() ? "coalesced" : result.replayed() ? "replayed" : "executed";
+            meterRegistry.counter("order.idempotency.requests", "outcome", outcome).increment();
+            return Mono.just(result.record());
+        });
+    }
+
+    private Mono<Execution> executeAndStore(final String key, final String fingerprint, final Supplier<Mono<Response>> request) {
+        return request.get()
+                .map(response -> new IdempotencyRecord(key, fingerprint, response.order(), response.changed(), LocalDateTime.now()))
+                .flatMap(record -> store.save(record).thenReturn(new Execution(record, false)));
+    }
+
+    private record Response(Order order, boolean changed) {
+    }
+
+    private record Execution(IdempotencyRecord record, boolean replayed) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.IdempotencyRecord;
+import reactor.core.publisher.Mono;
+
+public interface IdempotencyStore {
+
+    Mono<IdempotencyRecord> find(String key);
+
+    /**
+     * Stores the record unless its key is already taken, the first stored response wins.
+     */
+    Mono<Void> save(IdempotencyRecord record);
+}
@@ -0,0 +1,34 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.CacheInvalidation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Delivers invalidations to the caches sharing this transport instance only, which is enough for a single instance
+ * and lets tests run several caches against one bus.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.cache.invalidation", name = "transport", havingValue = "memory", matchIfMissing = true)
+public class InMemoryCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final Sinks.Many<CacheInvalidation> sink = Sinks.many().multicast().directBestEffort();
+
+    @Override
+    public Mono<Void> publish(final CacheInvalidation invalidation) {
+        return Mono.fromRunnable(() -> {
+            // Emitting without subscribers fails, which is fine as nobody caches anything then.
+            synchronized (sink) {
+                sink.tryEmitNext(invalidation);
+            }
+        });
+    }
+
+    @Override
+    public Flux<CacheInvalidation> invalidations() {
+        return sink.asFlux();
+    }
+}
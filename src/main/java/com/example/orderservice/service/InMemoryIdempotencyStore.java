@@ -0,0 +1,37 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.IdempotencyRecord;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Component
+@ConditionalOnProperty(prefix = "order.idempotency", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    public static final String CACHE_NAME = "idempotency-keys";
+
+    private final Cache<String, IdempotencyRecord> records;
+
+    public InMemoryIdempotencyStore(final IdempotencyConfig config, final MeterRegistry meterRegistry) {
+        this.records = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build(), CACHE_NAME);
+    }
+
+    @Override
+    public Mono<IdempotencyRecord> find(final String key) {
+        return Mono.fromSupplier(() -> records.getIfPresent(key));
+    }
+
+    @Override
+    public Mono<Void> save(final IdempotencyRecord record) {
+        return Mono.fromRunnable(() -> records.asMap().putIfAbsent(record.getKey(), record));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.OutboxMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(prefix = "order.outbox", name = "sink", havingValue = "log", matchIfMissing = true)
+@Slf4j
+public class LoggingOutboxSink implements OutboxSink {
+
+    @Override
+    public Mono<Void> publish(final List<OutboxMessage> messages) {
+        return Mono.fromRunnable(() -> messages.forEach(message ->
+                log.info("Order {} event {} for order {}", message.type(), message.eventId(), message.orderId())));
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.CacheInvalidation;
+import com.example.orderservice.model.Order;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of orders by id, with a short lived negative cache for ids that do not exist. Concurrent misses
+ * for the same id share a single lookup. Writers keep it current through {@link #put}, {@link #update} and
+ * {@link #evict}. Updates and evictions are announced over the {@link CacheInvalidationTransport} so that the other
+ * instances evict the ids too.
+ */
+@Component
+@Slf4j
+public class OrderCache {
+
+    public static final String CACHE_NAME = "orders";
+    public static final String NEGATIVE_CACHE_NAME = "orders-missing";
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AsyncCache<UUID, Order> orders;
+    private final Cache<UUID, Boolean> missing;
+    private final CacheInvalidationTransport transport;
+    private final Counter publishedCounter;
+    private final Counter publishFailedCounter;
+    private final Counter receivedCounter;
+    private final Timer lagTimer;
+    private Disposable subscription;
+
+    public OrderCache(final OrderCacheConfig config, final CacheInvalidationTransport transport, final MeterRegistry meterRegistry) {
+        this.orders = config.isEnabled() ? createOrderCache(config, meterRegistry) : null;
+        this.missing = config.isEnabled() && !config.getNegativeTtl().isZero() ? createNegativeCache(config, meterRegistry) : null;
+        this.transport = transport;
+        this.publishedCounter = Counter.builder("order.cache.invalidations.published")
+                .description("Invalidations announced to the other instances")
+                .register(meterRegistry);
+        this.publishFailedCounter = Counter.builder("order.cache.invalidations.failed")
+                .description("Invalidations that could not be announced, other instances may serve stale orders until the ttl")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("order.cache.invalidations.received")
+                .description("Invalidations received from other instances")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("order.cache.invalidation.lag")
+                .description("Time from a write on another instance until its ids were evicted here")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void listen() {
+        if (orders == null) {
+            return;
+        }
+        subscription = transport.invalidations()
+                .filter(invalidation -> !instanceId.equals(invalidation.getOrigin()))
+                .subscribe(this::apply, err -> log.error("Order cache invalidations stopped", err));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Returns the cached order or loads it, completing empty for ids known not to exist.
+     */
+    public Mono<Order> get(final UUID orderId, final Function<UUID, Mono<Order>> loader) {
+        if (orders == null) {
+            return loader.apply(orderId);
+        }
+        return Mono.defer(() -> {
+            if (missing != null && missing.getIfPresent(orderId) != null) {
+                return Mono.empty();
+            }
+            CompletableFuture<Order> order = orders.get(orderId, (id, executor) -> loader.apply(id).toFuture());
+            // Callers share the pending lookup, so one cancelled subscriber must not cancel it for the others.
+            return Mono.fromFuture(order, true)
+                    .doOnError(e -> orders.asMap().remove(orderId, order))
+                    .switchIfEmpty(Mono.fromRunnable(() -> {
+                        if (missing != null) {
+                            missing.put(orderId, Boolean.TRUE);
+                        }
+                    }));
+        });
+    }
+
+    /**
+     * Caches an order without announcing it, for orders that did not change or were just created. A created order
+     * has a fresh id that no other instance can have cached.
+     */
+    public void put(final Order order) {
+        if (orders != null) {
+            putLocally(order);
+        }
+    }
+
+    public void putAll(final Collection<Order> created) {
+        if (orders != null) {
+            created.forEach(this::putLocally);
+        }
+    }
+
+    public void update(final Order order) {
+        if (orders != null) {
+            putLocally(order);
+            broadcast(List.of(order.getOrderId()));
+        }
+    }
+
+    public void evict(final UUID orderId) {
+        if (orders != null) {
+            orders.synchronous().invalidate(orderId);
+            broadcast(List.of(orderId));
+        }
+    }
+
+    public void evictAll(final Collection<UUID> orderIds) {
+        if (orders != null && !orderIds.isEmpty()) {
+            orders.synchronous().invalidateAll(orderIds);
+            broadcast(List.copyOf(orderIds));
+        }
+    }
+
+    private void putLocally(final Order order) {
+        orders.synchronous().put(order.getOrderId(), order);
+        if (missing != null) {
+            missing.invalidate(order.getOrderId());
+        }
+    }
+
+    private void broadcast(final List<UUID> orderIds) {
+        CacheInvalidation invalidation = CacheInvalidation.builder()
+                .origin(instanceId)
+                .orderIds(orderIds)
+                .issuedAt(Instant.now())
+                .build();
+        transport.publish(invalidation)
+                .subscribe(null, err -> {
+                    publishFailedCounter.increment();
+                    log.warn("Could not announce invalidation of {} cached orders", orderIds.size(), err);
+                }, publishedCounter::increment);
+    }
+
+    /**
+     * Evicting also drops a lookup that is still pending, so a read that started before the write elsewhere does not
+     * put the stale order back.
+     */
+    private void apply(final CacheInvalidation invalidation) {
+        orders.synchronous().invalidateAll(invalidation.getOrderIds());
+        if (missing != null) {
+            missing.invalidateAll(invalidation.getOrderIds());
+        }
+        receivedCounter.increment();
+        Duration lag = Duration.between(invalidation.getIssuedAt(), Instant.now());
+        // Clocks of different instances drift apart, a negative lag is recorded as none.
+        lagTimer.record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
+    private static AsyncCache<UUID, Order> createOrderCache(final OrderCacheConfig config, final MeterRegistry meterRegistry) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(config.getTtl())
+                .recordStats();
+        if (config.getMaxWeight() > 0) {
+            builder.maximumWeight(config.getMaxWeight())
+                    .weigher((UUID orderId, Order order) -> 1 + (order.getLines() != null ? order.getLines().size() : 0));
+        } else {
+            builder.maximumSize(config.getMaxSize());
+        }
+        AsyncCache<UUID, Order> cache = builder.buildAsync();
+        Gauge.builder("order.cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                .description("Share of order lookups answered from the cache since startup")
+                .register(meterRegistry);
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    private static Cache<UUID, Boolean> createNegativeCache(final OrderCacheConfig config, final MeterRegistry meterRegistry) {
+        return CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(config.getNegativeMaxSize())
+                .expireAfterWrite(config.getNegativeTtl())
+                .recordStats()
+                .build(), NEGATIVE_CACHE_NAME);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.orderservice.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.cache")
+@Getter
+@Setter
+public class OrderCacheConfig {
+
+    /**
+     * Whether orders are cached in process for {@code GET /order/{orderId}}. Unless {@link Invalidation#transport}
+     * reaches the other instances, they may serve an order for up to {@link #ttl} after it was finalized or deleted
+     * elsewhere.
+     */
+    private boolean enabled = true;
+
+    private long maxSize = 10_000;
+
+    /**
+     * Bounds the cache by the total number of order lines instead of {@link #maxSize} when positive, so that a few
+     * very large orders cannot hold as much memory as many small ones.
+     */
+    private long maxWeight = 0;
+
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /**
+     * How long an id that was not found keeps answering 404 without a lookup, 0 disables the negative cache.
+     */
+    private Duration negativeTtl = Duration.ofSeconds(5);
+
+    private long negativeMaxSize = 10_000;
+
+    private Invalidation invalidation = new Invalidation();
+
+    @Getter
+    @Setter
+    public static class Invalidation {
+
+        /**
+         * MEMORY only reaches the caches of this instance, CHANGE_STREAM observes every write to the orders
+         * collection but requires MongoDB to run as a replica set, CAPPED_COLLECTION broadcasts through a capped
+         * collection tailed by every instance.
+         */
+        private Transport transport = Transport.MEMORY;
+
+        private DataSize collectionSize = DataSize.ofMegabytes(1);
+
+        private long collectionMaxDocuments = 10_000;
+
+        /**
+         * How long to wait before reopening a capped collection tail whose cursor ended.
+         */
+        private Duration tailRetryDelay = Duration.ofMillis(100);
+    }
+
+    public enum Transport {
+        MEMORY,
+        CHANGE_STREAM,
+        CAPPED_COLLECTION
+    }
+}
@@ -12,13 +12,13 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class OrderCleanupScheduler {
 
-    private final OrderService orderService;
+    private final OrderRetentionService orderRetentionService;
 
-    @Scheduled(cron = "0 0/3 * * * *")
+    @Scheduled(cron = "${order.retention.cron:0 0/3 * * * *}")
     public void cleanUpOldOrders() {
-        orderService.deleteOldOrders()
-                .doOnSuccess(s -> log.info("Successfully removed old orders"))
-                .doOnError(err -> log.error("Error occurred during old orders removal"))
+        orderRetentionService.purgeExpiredOrders()
+                .doOnNext(deleted -> log.info("Successfully removed {} old orders", deleted))
+                .doOnError(err -> log.error("Error occurred during old orders removal", err))
                 .subscribe();
     }
 }
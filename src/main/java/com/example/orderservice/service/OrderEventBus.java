@@ -0,0 +1,126 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderEvent;
+import com.example.orderservice.model.OrderEventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans order events out to all subscribers from a single upstream, keeping the most recent ones to replay after
+ * reconnects. Every subscriber gets its own bounded buffer, so a slow one only affects itself. Publishing takes no
+ * lock and never waits: events are queued, and whichever publisher finds no one emitting drains the queue, so
+ * events reach the sink one at a time and in id order.
+ */
+@Service
+public class OrderEventBus {
+
+    private final OrderEventConfig config;
+    private final Sinks.Many<OrderEvent> sink;
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final Queue<PendingEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger draining = new AtomicInteger();
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter droppedCounter;
+    private final MeterRegistry meterRegistry;
+
+    public OrderEventBus(final OrderEventConfig config, final MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.sink = Sinks.many().replay().limit(config.getHistorySize());
+        this.droppedCounter = Counter.builder("order.events.dropped")
+                .description("Order events dropped for subscribers that did not keep up")
+                .register(meterRegistry);
+        meterRegistry.gauge("order.events.subscribers", subscribers);
+    }
+
+    /**
+     * Publishes a change made by this instance, ignored when events come from the change stream which already
+     * observes it.
+     */
+    public void publishLocal(final OrderEventType type, final UUID orderId, final Order order) {
+        if (config.getSource() == OrderEventConfig.Source.IN_PROCESS) {
+            publish(type, orderId, order);
+        }
+    }
+
+    /**
+     * The replay sink keeps the history and hands it out together with the live events, so a subscriber sees every
+     * event after its last event id exactly once. Ids are given out when the event is emitted, so they follow the
+     * order in which subscribers receive the events.
+     */
+    public void publish(final OrderEventType type, final UUID orderId, final Order order) {
+        pending.offer(new PendingEvent(type, orderId, LocalDateTime.now(), order));
+        meterRegistry.counter("order.events.published", "type", type.name()).increment();
+        if (draining.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            PendingEvent event;
+            while ((event = pending.poll()) != null) {
+                long sequence = lastSequence.get() + 1;
+                sink.emitNext(new OrderEvent(epoch + '-' + sequence, event.type(), event.orderId(), event.occurredAt(), event.order()),
+                        Sinks.EmitFailureHandler.FAIL_FAST);
+                lastSequence.set(sequence);
+            }
+            missed = draining.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Streams events of the given types, all types when empty. Events retained after {@code lastEventId} are
+     * replayed first, all retained ones when it is older than the history. An id this instance did not give out,
+     * from before a restart or from another instance, streams from now on.
+     */
+    public Flux<OrderEvent> events(final Set<OrderEventType> types, final String lastEventId) {
+        Flux<OrderEvent> events = Flux.defer(() -> subscribe(lastEventId))
+                .filter(event -> types.isEmpty() || types.contains(event.type()));
+        return applyOverflow(events)
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    private Flux<OrderEvent> subscribe(final String lastEventId) {
+        long after = replayAfter(lastEventId);
+        return sink.asFlux()
+                .filter(event -> sequence(event.id()) > after);
+    }
+
+    private long replayAfter(final String lastEventId) {
+        long current = lastSequence.get();
+        if (lastEventId == null || !lastEventId.startsWith(epoch + '-')) {
+            return current;
+        }
+        long sequence = sequence(lastEventId);
+        return sequence >= 0 && sequence <= current ? sequence : current;
+    }
+
+    private static long sequence(final String eventId) {
+        try {
+            return Long.parseLong(eventId.substring(eventId.lastIndexOf('-') + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Flux<OrderEvent> applyOverflow(final Flux<OrderEvent> events) {
+        return events.onBackpressureBuffer(config.getSubscriberBufferSize(), dropped -> droppedCounter.increment(), config.getOverflow());
+    }
+
+    private record PendingEvent(OrderEventType type, UUID orderId, LocalDateTime occurredAt, Order order) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.orderservice.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+
+@Component
+@ConfigurationProperties(prefix = "order.events")
+@Getter
+@Setter
+public class OrderEventConfig {
+
+    /**
+     * IN_PROCESS publishes the changes made through this instance, CHANGE_STREAM tails the orders collection and
+     * sees every writer, but requires MongoDB to run as a replica set.
+     */
+    private Source source = Source.IN_PROCESS;
+
+    /**
+     * Number of recent events kept to replay to reconnecting subscribers.
+     */
+    private int historySize = 1024;
+
+    /**
+     * Events buffered per subscriber before the overflow policy applies.
+     */
+    private int subscriberBufferSize = 256;
+
+    /**
+     * What happens to a subscriber that does not keep up: DROP_OLDEST and DROP_LATEST skip events, ERROR ends its
+     * stream so the client reconnects with its last event id.
+     */
+    private BufferOverflowStrategy overflow = BufferOverflowStrategy.DROP_OLDEST;
+
+    public enum Source {
+        IN_PROCESS,
+        CHANGE_STREAM
+    }
+}
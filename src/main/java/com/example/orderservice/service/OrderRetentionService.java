@@ -0,0 +1,100 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@Slf4j
+public class OrderRetentionService {
+
+    private final OrderRepository orderRepository;
+    private final RetentionConfig config;
+    private final OrderCache orderCache;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter deletedCounter;
+    private final Counter skippedCounter;
+    private final Timer runTimer;
+    private final Timer chunkTimer;
+
+    public OrderRetentionService(final OrderRepository orderRepository, final RetentionConfig config, final OrderCache orderCache,
+                                 final MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.config = config;
+        this.orderCache = orderCache;
+        this.deletedCounter = Counter.builder("order.retention.deleted")
+                .description("Orders removed by the retention purge")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("order.retention.skipped")
+                .description("Retention runs skipped because the previous run was still in progress")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("order.retention.run")
+                .description("Duration of a complete retention purge")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("order.retention.chunk")
+                .description("Duration of a single retention chunk")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Removes expired orders chunk by chunk and emits the number of removed orders. Emits nothing when orders expire
+     * through the TTL index or when a previous purge is still running.
+     */
+    public Mono<Long> purgeExpiredOrders() {
+        if (config.getMode() == RetentionConfig.Mode.TTL) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                skippedCounter.increment();
+                log.warn("Previous old orders removal is still in progress, skipping");
+                return Mono.empty();
+            }
+            LocalDateTime cutoff = LocalDateTime.now(ZoneId.systemDefault()).minus(config.getMaxAge());
+            Timer.Sample sample = Timer.start();
+            return purgeChunk(cutoff, null, null)
+                    .expand(chunk -> chunk.hasMore()
+                            ? purgeChunk(cutoff, chunk.lastInsertDateTime(), chunk.lastOrderId()).delaySubscription(config.getChunkDelay())
+                            : Mono.empty())
+                    .reduce(0L, (total, chunk) -> total + chunk.deleted())
+                    .doFinally(signal -> {
+                        sample.stop(runTimer);
+                        running.set(false);
+                    });
+        });
+    }
+
+    private Mono<Chunk> purgeChunk(final LocalDateTime cutoff, final LocalDateTime afterTime, final UUID afterOrderId) {
+        Timer.Sample sample = Timer.start();
+        return orderRepository.findExpiredOrders(cutoff, afterTime, afterOrderId, config.getChunkSize())
+                .collectList()
+                .filter(orders -> !orders.isEmpty())
+                .flatMap(orders -> delete(orders, cutoff))
+                .doOnNext(chunk -> {
+                    deletedCounter.increment(chunk.deleted());
+                    sample.stop(chunkTimer);
+                });
+    }
+
+    private Mono<Chunk> delete(final List<Order> orders, final LocalDateTime cutoff) {
+        List<UUID> orderIds = orders.stream().map(Order::getOrderId).toList();
+        Order last = orders.get(orders.size() - 1);
+        return orderRepository.deleteExpiredOrders(orderIds, cutoff)
+                .doOnNext(deleted -> orderCache.evictAll(orderIds))
+                .map(deleted -> new Chunk(deleted, last.getInsertDateTime(), last.getOrderId(), orders.size() == config.getChunkSize()));
+    }
+
+    private record Chunk(long deleted, LocalDateTime lastInsertDateTime, UUID lastOrderId, boolean hasMore) {
+    }
+}
@@ -1,14 +1,27 @@
 package com.example.orderservice.service;
 
 import com.example.orderservice.client.ShoppingClient;
+import com.example.orderservice.model.BatchOrderRequest;
+import com.example.orderservice.model.BatchOrderResult;
+import com.example.orderservice.model.BulkDeleteResult;
+import com.example.orderservice.model.BulkInsertResult;
 import com.example.orderservice.model.CustomerInfo;
 import com.example.orderservice.model.DeliveryInfo;
+import com.example.orderservice.model.FinalizeOrderResult;
 import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderEventType;
+import com.example.orderservice.model.OrderLine;
+import com.example.orderservice.model.OrderSearchCriteria;
+import com.example.orderservice.model.OrderSummary;
+import com.example.orderservice.model.OrderSummaryField;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.model.ShoppingCart;
+import com.example.orderservice.model.UploadBatchResult;
+import com.example.orderservice.metrics.CallTimer;
 import com.example.orderservice.repository.OrderRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.AllArgsConstructor;
-import org.springframework.core.io.buffer.DataBufferUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
@@ -16,88 +29,248 @@ import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
 
 @Service
-@AllArgsConstructor
 public class OrderService {
 
     public static final String ORDER_NOT_FOUND = "Order not found";
+    public static final String UNEXPECTED_ERROR = "Unexpected error occurred";
+    public static final String UNKNOWN_SUMMARY_FIELD = "Unknown order summary field: ";
+    public static final String INCOMPLETE_CURSOR = "afterTime and afterId have to be provided together";
+    public static final int DEFAULT_PAGE_SIZE = 100;
     private final OrderRepository orderRepository;
     private final ShoppingClient shoppingClient;
-    private final ObjectMapper objectMapper;
+    private final OrderUploadParser orderUploadParser;
+    private final UploadConfig uploadConfig;
+    private final BatchConfig batchConfig;
+    private final OrderEventBus orderEventBus;
+    private final OrderCache orderCache;
+    private final CallTimer callTimer;
+    private final Counter uploadedOrdersCounter;
+    private final DistributionSummary uploadSize;
+
+    public OrderService(final OrderRepository orderRepository, final ShoppingClient shoppingClient, final OrderUploadParser orderUploadParser,
+                        final UploadConfig uploadConfig, final BatchConfig batchConfig, final OrderEventBus orderEventBus,
+                        final OrderCache orderCache, final MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.shoppingClient = shoppingClient;
+        this.orderUploadParser = orderUploadParser;
+        this.uploadConfig = uploadConfig;
+        this.batchConfig = batchConfig;
+        this.orderEventBus = orderEventBus;
+        this.orderCache = orderCache;
+        this.callTimer = new CallTimer("order.service", meterRegistry);
+        this.uploadedOrdersCounter = Counter.builder("order.upload.orders")
+                .description("Orders inserted from uploaded files")
+                .register(meterRegistry);
+        this.uploadSize = DistributionSummary.builder("order.upload.size")
+                .description("Size of uploaded files")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
 
     public Mono<Order> createOrder(final UUID cartId, final CustomerInfo customerInfo, final DeliveryInfo deliveryInfo) {
-        return shoppingClient.getShoppingCart(cartId)
-                .map(shoppingCart -> new Order(
-                        UUID.randomUUID(),
-                        shoppingCart.getProducts(),
-                        customerInfo,
-                        deliveryInfo,
-                        false,
-                        LocalDateTime.now()
-                ))
-                .flatMap(orderRepository::save);
+        return callTimer.time("createOrder", shoppingClient.getShoppingCart(cartId)
+                .map(shoppingCart -> newOrder(shoppingCart, customerInfo, deliveryInfo))
+                .flatMap(orderRepository::save)
+                .doOnNext(order -> {
+                    orderCache.put(order);
+                    orderEventBus.publishLocal(OrderEventType.CREATED, order.getOrderId(), order);
+                }));
+    }
+
+    public Flux<BatchOrderResult> createOrders(final Flux<BatchOrderRequest> requests) {
+        return requests.index()
+                .flatMapSequential(request -> prepareBatchOrder(request.getT1(), request.getT2()), batchConfig.getCartConcurrency())
+                .bufferTimeout(batchConfig.getBatchSize(), batchConfig.getBatchWindow(), true)
+                .flatMapSequential(this::insertBatchOrders, batchConfig.getMaxInFlightBatches());
     }
 
     public Mono<Order> retrieveOrder(final UUID orderId) {
-        return orderRepository.findOrderByOrderId(orderId)
+        return orderCache.get(orderId, orderRepository::findOrderByOrderId)
+                .switchIfEmpty(Mono.defer(() -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, ORDER_NOT_FOUND))));
+    }
+
+    public Flux<Order> listOrders(final OrderSearchCriteria criteria) {
+        if ((criteria.afterTime() == null) != (criteria.afterId() == null)) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, INCOMPLETE_CURSOR));
+        }
+        return orderRepository.findOrders(criteria, criteria.limit() != null ? criteria.limit() : DEFAULT_PAGE_SIZE);
+    }
+
+    public Mono<OrderSummary> retrieveOrderSummary(final UUID orderId, final List<String> fields) {
+        return Mono.fromCallable(() -> toSummaryFields(fields))
+                .flatMap(summaryFields -> orderRepository.findOrderSummary(orderId, summaryFields))
                 .switchIfEmpty(Mono.defer(() -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, ORDER_NOT_FOUND))));
     }
 
     public Mono<Void> deleteOrder(final UUID orderId) {
-        return orderRepository.findOrderByOrderId(orderId)
+        return orderRepository.deleteOrderByOrderId(orderId)
+                .doOnNext(deleted -> orderCache.evict(orderId))
+                .filter(deleted -> deleted > 0)
                 .switchIfEmpty(Mono.defer(() -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, ORDER_NOT_FOUND))))
-                .flatMap(order -> orderRepository.deleteOrderByOrderId(order.getOrderId()));
+                .doOnNext(deleted -> orderEventBus.publishLocal(OrderEventType.DELETED, orderId, null))
+                .then();
     }
 
-    public Mono<Order> finalizeOrder(final UUID orderId) {
-        return orderRepository.findOrderByOrderId(orderId)
-                .switchIfEmpty(Mono.defer(() -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, ORDER_NOT_FOUND))))
-                .map(this::payForOrder)
-                .flatMap(orderRepository::save);
-    }
-
-    public Flux<Order> uploadProducts(final FilePart filePart) {
-        return DataBufferUtils.join(filePart.content())
-                .flatMapMany(dataBuffer -> Flux.using(
-                        () -> dataBuffer,
-                        buffer -> {
-                            byte[] bytes = new byte[buffer.readableByteCount()];
-                            buffer.read(bytes);
-                            try {
-                                return Flux.fromIterable(
-                                        objectMapper.readValue(bytes, new TypeReference<List<Order>>() {
-                                        })
-                                );
-                            } catch (Exception e) {
-                                return Flux.error(e);
-                            }
-                        },
-                        DataBufferUtils::release
-                ))
-                .map(this::setOrderIdAndInsertDateTime)
-                .flatMap(orderRepository::save);
-    }
-
-    public Mono<Void> deleteOldOrders() {
-        LocalDateTime oneMinuteAgo = LocalDateTime.now(ZoneId.systemDefault()).minusMinutes(1);
-        return orderRepository.deleteByInsertDateTimeBefore(oneMinuteAgo);
-    }
-
-    private Order payForOrder(final Order order) {
-        if (!order.isPaid()) {
-            order.setPaid(true);
+    public Mono<BulkDeleteResult> deleteOrders(final List<UUID> orderIds) {
+        Set<UUID> uniqueOrderIds = new HashSet<>(orderIds);
+        return orderRepository.deleteByOrderIdIn(uniqueOrderIds)
+                .doOnNext(deleted -> orderCache.evictAll(uniqueOrderIds))
+                // The delete only reports a count, which identifies the removed orders only when all of them existed.
+                // Partial deletes are not announced in process, the change stream source reports them exactly.
+                .doOnNext(deleted -> {
+                    if (deleted == uniqueOrderIds.size()) {
+                        uniqueOrderIds.forEach(orderId -> orderEventBus.publishLocal(OrderEventType.DELETED, orderId, null));
+                    }
+                })
+                .map(deleted -> new BulkDeleteResult(uniqueOrderIds.size(), deleted));
+    }
+
+    public Mono<FinalizeOrderResult> finalizeOrder(final UUID orderId) {
+        return callTimer.time("finalizeOrder", orderRepository.markPaid(orderId, OutboxEvent.of(OrderEventType.FINALIZED))
+                .doOnNext(order -> orderEventBus.publishLocal(OrderEventType.FINALIZED, orderId, order))
+                .map(order -> new FinalizeOrderResult(order, true))
+                // Nothing was modified, so the order is either already paid or does not exist.
+                .switchIfEmpty(Mono.defer(() -> orderRepository.findOrderByOrderId(orderId)
+                        .map(order -> new FinalizeOrderResult(order, false))))
+                .doOnNext(result -> {
+                    if (result.changed()) {
+                        orderCache.update(result.order());
+                    } else {
+                        orderCache.put(result.order());
+                    }
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    orderCache.evict(orderId);
+                    return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, ORDER_NOT_FOUND));
+                })));
+    }
+
+    public Flux<UploadBatchResult> uploadProducts(final FilePart filePart, final boolean includeIds) {
+        return callTimer.time("uploadProducts", Flux.defer(() -> {
+            AtomicLong bytes = new AtomicLong();
+            return orderUploadParser.parse(filePart.content().doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount())),
+                            filePart.headers().getContentType())
+                    .map(this::setOrderIdAndInsertDateTime)
+                    .bufferTimeout(uploadConfig.getBatchSize(), uploadConfig.getBatchWindow(), true)
+                    .index()
+                    .flatMapSequential(batch -> insertBatch(batch.getT1(), batch.getT2(), includeIds), uploadConfig.getMaxInFlightBatches())
+                    .doOnNext(result -> uploadedOrdersCounter.increment(result.inserted()))
+                    .doFinally(signal -> uploadSize.record(bytes.get()));
+        }));
+    }
+
+    private Mono<PreparedOrder> prepareBatchOrder(final long index, final BatchOrderRequest request) {
+        return shoppingClient.getShoppingCart(request.cartId())
+                .map(shoppingCart -> new PreparedOrder(index, request.cartId(), newOrder(shoppingCart, request.customerInfo(), request.deliveryInfo()), null))
+                .onErrorResume(error -> Mono.just(new PreparedOrder(index, request.cartId(), null, error)));
+    }
+
+    private Flux<BatchOrderResult> insertBatchOrders(final List<PreparedOrder> preparedOrders) {
+        List<Order> orders = preparedOrders.stream()
+                .map(PreparedOrder::order)
+                .filter(Objects::nonNull)
+                .toList();
+        if (orders.isEmpty()) {
+            return Flux.fromIterable(toBatchOrderResults(preparedOrders, index -> true));
         }
-        return order;
+        return orderRepository.bulkInsert(orders, false)
+                .doOnNext(result -> publishCreated(insertedOrders(orders, result)))
+                .map(result -> toBatchOrderResults(preparedOrders, result::isInserted))
+                .onErrorResume(error -> Mono.just(toBatchOrderResults(preparedOrders, index -> false)))
+                .flatMapIterable(results -> results);
+    }
+
+    /**
+     * Maps the bulk outcome back onto the requests; orders that failed before the insert are not part of the bulk, so
+     * the bulk index only advances for prepared orders.
+     */
+    private List<BatchOrderResult> toBatchOrderResults(final List<PreparedOrder> preparedOrders, final IntPredicate inserted) {
+        List<BatchOrderResult> results = new ArrayList<>(preparedOrders.size());
+        int bulkIndex = 0;
+        for (PreparedOrder preparedOrder : preparedOrders) {
+            results.add(preparedOrder.toResult(preparedOrder.order() != null && inserted.test(bulkIndex++)));
+        }
+        return results;
+    }
+
+    private static List<Order> insertedOrders(final List<Order> orders, final BulkInsertResult result) {
+        return IntStream.range(0, orders.size())
+                .filter(result::isInserted)
+                .mapToObj(orders::get)
+                .toList();
+    }
+
+    private Mono<UploadBatchResult> insertBatch(final long batch, final List<Order> orders, final boolean includeIds) {
+        long start = System.nanoTime();
+        return orderRepository.bulkInsert(orders, uploadConfig.isOrdered())
+                .map(result -> insertedOrders(orders, result))
+                .doOnNext(this::publishCreated)
+                .map(inserted -> new UploadBatchResult(batch, orders.size(), inserted.size(),
+                        Duration.ofNanos(System.nanoTime() - start).toMillis(),
+                        includeIds ? inserted.stream().map(Order::getOrderId).toList() : null));
+    }
+
+    private void publishCreated(final List<Order> orders) {
+        orderCache.putAll(orders);
+        orders.forEach(order -> orderEventBus.publishLocal(OrderEventType.CREATED, order.getOrderId(), order));
+    }
+
+    private static Set<OrderSummaryField> toSummaryFields(final List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return EnumSet.allOf(OrderSummaryField.class);
+        }
+        Set<OrderSummaryField> summaryFields = EnumSet.noneOf(OrderSummaryField.class);
+        for (String field : fields) {
+            summaryFields.add(OrderSummaryField.fromName(field.trim())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, UNKNOWN_SUMMARY_FIELD + field)));
+        }
+        return summaryFields;
+    }
+
+    private Order newOrder(final ShoppingCart shoppingCart, final CustomerInfo customerInfo, final DeliveryInfo deliveryInfo) {
+        return new Order(
+                UUID.randomUUID(),
+                null,
+                OrderLine.fromProducts(shoppingCart.getProducts()),
+                customerInfo,
+                deliveryInfo,
+                false,
+                LocalDateTime.now(),
+                List.of(OutboxEvent.of(OrderEventType.CREATED))
+        );
     }
 
     private Order setOrderIdAndInsertDateTime(final Order order) {
         order.setOrderId(UUID.randomUUID());
         order.setInsertDateTime(LocalDateTime.now());
-        return order;
+        order.setOutbox(List.of(OutboxEvent.of(OrderEventType.CREATED)));
+        return order.withLinesFromProducts();
+    }
+
+    private record PreparedOrder(long index, UUID cartId, Order order, Throwable error) {
+
+        BatchOrderResult toResult(final boolean inserted) {
+            if (error == null && inserted) {
+                return new BatchOrderResult(index, cartId, order.getOrderId(), HttpStatus.OK.value(), null);
+            }
+            if (error instanceof ResponseStatusException responseStatusException) {
+                return new BatchOrderResult(index, cartId, null, responseStatusException.getStatusCode().value(), responseStatusException.getReason());
+            }
+            return new BatchOrderResult(index, cartId, null, HttpStatus.INTERNAL_SERVER_ERROR.value(), UNEXPECTED_ERROR);
+        }
     }
 }
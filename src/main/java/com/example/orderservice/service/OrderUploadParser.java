@@ -0,0 +1,57 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.config.AppConfig;
+import com.example.orderservice.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.AbstractJackson2Decoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.util.Collections;
+
+/**
+ * Incremental parser for uploaded order files. The file content is fed chunk by chunk into Jackson's non-blocking
+ * parser and every element of the top level JSON array is emitted as soon as its object is complete, so memory usage
+ * depends on the size of a single order rather than on the size of the file. Files sent as Smile are parsed the same
+ * way, anything else is read as JSON.
+ */
+@Component
+public class OrderUploadParser {
+
+    public static final String INVALID_UPLOAD = "Uploaded file does not contain valid orders";
+    public static final String ORDER_TOO_LARGE = "Uploaded order exceeds the maximum allowed size";
+    private static final ResolvableType ORDER_TYPE = ResolvableType.forClass(Order.class);
+
+    private final Jackson2JsonDecoder jsonDecoder;
+    private final Jackson2SmileDecoder smileDecoder;
+
+    public OrderUploadParser(final ObjectMapper objectMapper, final UploadConfig config) {
+        this.jsonDecoder = new Jackson2JsonDecoder(objectMapper);
+        this.jsonDecoder.setMaxInMemorySize((int) config.getMaxOrderSize().toBytes());
+        this.smileDecoder = new Jackson2SmileDecoder(AppConfig.smileMapper(objectMapper), AppConfig.SMILE_MIME_TYPES);
+        this.smileDecoder.setMaxInMemorySize((int) config.getMaxOrderSize().toBytes());
+    }
+
+    public Flux<Order> parse(final Flux<DataBuffer> content) {
+        return parse(content, MediaType.APPLICATION_JSON);
+    }
+
+    public Flux<Order> parse(final Flux<DataBuffer> content, final MediaType contentType) {
+        AbstractJackson2Decoder decoder = contentType != null && smileDecoder.canDecode(ORDER_TYPE, contentType)
+                ? smileDecoder
+                : jsonDecoder;
+        return decoder.decode(content, ORDER_TYPE, decoder == smileDecoder ? contentType : MediaType.APPLICATION_JSON, Collections.emptyMap())
+                .cast(Order.class)
+                .onErrorMap(DataBufferLimitException.class, e -> new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, ORDER_TOO_LARGE, e))
+                .onErrorMap(CodecException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_UPLOAD, e));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.orderservice.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.outbox")
+@Getter
+@Setter
+public class OutboxConfig {
+
+    /**
+     * Whether the relay drains pending outbox events. Events are recorded with the orders either way.
+     */
+    private boolean relayEnabled = true;
+
+    /**
+     * Maximum number of orders with pending events read and delivered to the sink at once.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Pause between two polls once the outbox has been drained.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * How long a claimed batch is reserved for the relay that claimed it. Batches of an instance that stops mid-way
+     * are claimed by others once it runs out, so it must exceed the time to deliver and acknowledge a batch.
+     */
+    private Duration leaseDuration = Duration.ofSeconds(30);
+
+    /**
+     * Destination of relayed events. LOG writes them to the application log.
+     */
+    private Sink sink = Sink.LOG;
+
+    public enum Sink {
+        LOG
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.model.OutboxMessage;
+import com.example.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class OutboxRelay {
+
+    private final OrderRepository orderRepository;
+    private final OutboxSink outboxSink;
+    private final OutboxConfig config;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter relayedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+
+    public OutboxRelay(final OrderRepository orderRepository, final OutboxSink outboxSink, final OutboxConfig config, final MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.outboxSink = outboxSink;
+        this.config = config;
+        this.relayedCounter = Counter.builder("order.outbox.relayed")
+                .description("Outbox events delivered to the sink")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("order.outbox.failed")
+                .description("Outbox batches that failed and will be delivered again")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("order.outbox.batch")
+                .description("Duration of reading, delivering and acknowledging a single outbox batch")
+                .register(meterRegistry);
+        TimeGauge.builder("order.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest pending outbox event seen by the last poll")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Delivers pending outbox events batch by batch until the outbox is drained and emits the number of delivered
+     * events. Events are removed only after the sink accepted them, so a failure in between delivers them again.
+     * Each batch is claimed under a lease first, so relays on other instances do not deliver it concurrently; the flag
+     * only keeps polls of this instance from overlapping.
+     */
+    public Mono<Long> relayPendingEvents() {
+        if (!config.isRelayEnabled()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            return relayBatch()
+                    .expand(batch -> batch.hasMore() ? relayBatch() : Mono.empty())
+                    .reduce(0L, (total, batch) -> total + batch.relayed())
+                    .doFinally(signal -> running.set(false));
+        });
+    }
+
+    /**
+     * A failed batch is released right away instead of waiting for its lease to expire.
+     */
+    private Mono<Batch> relayBatch() {
+        Timer.Sample sample = Timer.start();
+        String claimId = UUID.randomUUID().toString();
+        return orderRepository.claimOrdersWithPendingOutbox(claimId, config.getBatchSize(), config.getLeaseDuration())
+                .collectList()
+                .doOnNext(this::recordLag)
+                .filter(orders -> !orders.isEmpty())
+                .flatMap(orders -> {
+                    List<OutboxMessage> messages = toMessages(orders);
+                    return outboxSink.publish(messages)
+                            .then(Mono.defer(() -> orderRepository.removeOutboxEvents(claimId, toEventIds(orders))))
+                            .onErrorResume(err -> orderRepository.releaseOutboxClaim(claimId)
+                                    .onErrorResume(releaseErr -> Mono.empty())
+                                    .then(Mono.error(err)))
+                            .thenReturn(new Batch(messages.size(), orders.size() == config.getBatchSize()));
+                })
+                .doOnNext(batch -> {
+                    relayedCounter.increment(batch.relayed());
+                    sample.stop(batchTimer);
+                })
+                .doOnError(err -> failedCounter.increment());
+    }
+
+    private void recordLag(final List<Order> orders) {
+        LocalDateTime oldest = orders.stream()
+                .flatMap(order -> order.getOutbox().stream())
+                .map(OutboxEvent::getCreatedAt)
+                .min(LocalDateTime::compareTo)
+                .orElse(null);
+        lagMillis.set(oldest != null ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()) : 0);
+    }
+
+    private static List<OutboxMessage> toMessages(final List<Order> orders) {
+        return orders.stream()
+                .flatMap(order -> order.getOutbox().stream()
+                        .map(event -> new OutboxMessage(event.getEventId(), event.getType(), order.getOrderId(), event.getCreatedAt(), order)))
+                .toList();
+    }
+
+    private static Map<UUID, List<UUID>> toEventIds(final List<Order> orders) {
+        Map<UUID, List<UUID>> eventIds = new LinkedHashMap<>();
+        orders.forEach(order -> eventIds.put(order.getOrderId(), order.getOutbox().stream()
+                .map(OutboxEvent::getEventId)
+                .toList()));
+        return eventIds;
+    }
+
+    private record Batch(long relayed, boolean hasMore) {
+    }
+}
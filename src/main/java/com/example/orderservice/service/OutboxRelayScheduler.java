@@ -0,0 +1,23 @@
+package com.example.orderservice.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor
+@Slf4j
+public class OutboxRelayScheduler {
+
+    private final OutboxRelay outboxRelay;
+
+    @Scheduled(fixedDelayString = "#{@outboxConfig.pollInterval.toMillis()}")
+    public void relayOutbox() {
+        outboxRelay.relayPendingEvents()
+                .filter(relayed -> relayed > 0)
+                .doOnNext(relayed -> log.debug("Relayed {} outbox events", relayed))
+                .doOnError(err -> log.error("Error occurred during outbox relay", err))
+                .subscribe();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.OutboxMessage;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Destination of relayed outbox events. A batch counts as delivered once the returned publisher completes, an error
+ * leaves it in the outbox to be delivered again.
+ */
+public interface OutboxSink {
+
+    Mono<Void> publish(List<OutboxMessage> messages);
+}
@@ -0,0 +1,41 @@
+package com.example.orderservice.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.retention")
+@Getter
+@Setter
+public class RetentionConfig {
+
+    /**
+     * TTL lets MongoDB expire orders through a TTL index on insertDateTime, CHUNKED deletes them from the scheduler
+     * in rate limited batches, oldest first. Switching to CHUNKED drops the TTL index.
+     */
+    private Mode mode = Mode.CHUNKED;
+
+    /**
+     * Orders inserted earlier than this are removed.
+     */
+    private Duration maxAge = Duration.ofMinutes(1);
+
+    /**
+     * Maximum number of orders removed by a single delete in CHUNKED mode.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Pause between two consecutive chunks in CHUNKED mode.
+     */
+    private Duration chunkDelay = Duration.ofMillis(100);
+
+    public enum Mode {
+        TTL,
+        CHUNKED
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.orderservice.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.upload")
+@Getter
+@Setter
+public class UploadConfig {
+
+    /**
+     * Upper bound for a single order object inside an uploaded file. The whole file is never held in memory,
+     * only the order that is currently being parsed.
+     */
+    private DataSize maxOrderSize = DataSize.ofMegabytes(1);
+
+    /**
+     * Maximum number of orders written with a single bulk insert.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Maximum time a partially filled batch waits for more orders before it is written.
+     */
+    private Duration batchWindow = Duration.ofMillis(500);
+
+    /**
+     * Number of bulk inserts that may be in flight at the same time.
+     */
+    private int maxInFlightBatches = 4;
+
+    /**
+     * Whether a failed insert should stop the remaining inserts of its batch.
+     */
+    private boolean ordered = false;
+}
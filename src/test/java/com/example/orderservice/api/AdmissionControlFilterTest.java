@@ -0,0 +1,198 @@
+package com.example.orderservice.api;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private AdmissionConfig config;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        config = new AdmissionConfig();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void should_reject_client_over_its_rate_with_retry_after() {
+        config.getWrite().setClientRate(1);
+        config.getWrite().setClientBurst(1);
+        AdmissionControlFilter filter = new AdmissionControlFilter(config, meterRegistry, nanoTime::get);
+
+        MockServerWebExchange first = exchange(MockServerHttpRequest.post("/order/{id}", "1").header("X-Client-Id", "a"));
+        MockServerWebExchange second = exchange(MockServerHttpRequest.post("/order/{id}", "1").header("X-Client-Id", "a"));
+        MockServerWebExchange otherClient = exchange(MockServerHttpRequest.post("/order/{id}", "1").header("X-Client-Id", "b"));
+        filter.filter(first, completing()).block();
+        filter.filter(second, completing()).block();
+        filter.filter(otherClient, completing()).block();
+
+        assertThat(first.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(otherClient.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(meterRegistry.get("order.admission.rejected").tags("route", "write", "reason", "client_rate_limited").counter().count()).isEqualTo(1);
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        MockServerWebExchange refilled = exchange(MockServerHttpRequest.post("/order/{id}", "1").header("X-Client-Id", "a"));
+        filter.filter(refilled, completing()).block();
+        assertThat(refilled.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void should_not_use_shared_capacity_for_client_over_its_rate() {
+        config.getBulk().setRate(1);
+        config.getBulk().setBurst(2);
+        config.getBulk().setClientRate(1);
+        config.getBulk().setClientBurst(1);
+        AdmissionControlFilter filter = new AdmissionControlFilter(config, meterRegistry, nanoTime::get);
+
+        for (int i = 0; i < 5; i++) {
+            filter.filter(exchange(MockServerHttpRequest.post("/order/upload").header("X-Client-Id", "greedy")), completing()).block();
+        }
+        MockServerWebExchange wellBehaved = exchange(MockServerHttpRequest.post("/order/upload").header("X-Client-Id", "polite"));
+        filter.filter(wellBehaved, completing()).block();
+
+        assertThat(wellBehaved.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(meterRegistry.get("order.admission.rejected").tags("route", "bulk", "reason", "client_rate_limited").counter().count()).isEqualTo(4);
+    }
+
+    @Test
+    void should_limit_client_rotating_its_client_id() {
+        config.setMaxClientIdsPerAddress(2);
+        config.getWrite().setClientRate(1);
+        config.getWrite().setClientBurst(1);
+        AdmissionControlFilter filter = new AdmissionControlFilter(config, meterRegistry, nanoTime::get);
+
+        for (int i = 0; i < 5; i++) {
+            filter.filter(exchange(MockServerHttpRequest.post("/order/{id}", "1").header("X-Client-Id", "id-" + i)), completing()).block();
+        }
+
+        // The first two ids get their own bucket, the others share the one of the address.
+        assertThat(meterRegistry.get("order.admission.rejected").tags("route", "write", "reason", "client_rate_limited").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_only_apply_shared_limits_without_client_identity() {
+        config.getWrite().setClientRate(1);
+        config.getWrite().setClientBurst(1);
+        AdmissionControlFilter filter = new AdmissionControlFilter(config, meterRegistry, nanoTime::get);
+
+        for (int i = 0; i < 5; i++) {
+            MockServerWebExchange exchange = exchange(MockServerHttpRequest.post("/order/{id}", "1").header("X-Forwarded-For", "10.0.0." + i));
+            filter.filter(exchange, completing()).block();
+
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    @Test
+    void should_limit_client_by_trusted_forwarded_address() {
+        config.setTrustedAddressHeader("X-Forwarded-For");
+        config.getWrite().setClientRate(1);
+        config.getWrite().setClientBurst(1);
+        AdmissionControlFilter filter = new AdmissionControlFilter(config, meterRegistry, nanoTime::get);
+
+        MockServerWebExchange first = exchange(MockServerHttpRequest.post("/order/{id}", "1").header("X-Forwarded-For", "1.2.3.4, 10.0.0.1"));
+        MockServerWebExchange spoofed = exchange(MockServerHttpRequest.post("/order/{id}", "1").header("X-Forwarded-For", "5.6.7.8, 10.0.0.1"));
+        MockServerWebExchange otherClient = exchange(MockServerHttpRequest.post("/order/{id}", "1").header("X-Forwarded-For", "10.0.0.2"));
+        filter.filter(first, completing()).block();
+        filter.filter(spoofed, completing()).block();
+        filter.filter(otherClient, completing()).block();
+
+        assertThat(first.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(spoofed.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(otherClient.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void should_queue_and_shed_bulk_requests_without_affecting_reads() {
+        config.getBulk().setMaxConcurrent(1);
+        config.getBulk().setMaxQueued(1);
+        config.getBulk().setRate(0);
+        config.getBulk().setClientRate(0);
+        AdmissionControlFilter filter = new AdmissionControlFilter(config, meterRegistry, nanoTime::get);
+        Sinks.Empty<Void> upload = Sinks.empty();
+
+        MockServerWebExchange running = exchange(MockServerHttpRequest.post("/order/upload"));
+        MockServerWebExchange queued = exchange(MockServerHttpRequest.post("/order/upload"));
+        MockServerWebExchange shed = exchange(MockServerHttpRequest.post("/order/batch"));
+        MockServerWebExchange read = exchange(MockServerHttpRequest.get("/order/{id}", "1"));
+        Disposable runningRequest = filter.filter(running, exchange -> upload.asMono()).subscribe();
+        Disposable queuedRequest = filter.filter(queued, completing()).subscribe();
+        filter.filter(shed, completing()).block();
+        filter.filter(read, completing()).block();
+
+        assertThat(shed.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+        assertThat(read.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(queuedRequest.isDisposed()).isFalse();
+        assertThat(meterRegistry.get("order.admission.queued").tag("route", "bulk").gauge().value()).isEqualTo(1);
+
+        upload.tryEmitEmpty();
+
+        assertThat(runningRequest.isDisposed()).isTrue();
+        assertThat(queued.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(meterRegistry.get("order.admission.in.flight").tag("route", "bulk").gauge().value()).isZero();
+        assertThat(meterRegistry.get("order.admission.rejected").tags("route", "bulk", "reason", "queue_full").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_reject_request_waiting_longer_than_queue_timeout() {
+        config.getWrite().setMaxConcurrent(1);
+        config.getWrite().setQueueTimeout(Duration.ofMillis(50));
+        AdmissionControlFilter filter = new AdmissionControlFilter(config, meterRegistry, nanoTime::get);
+
+        Disposable running = filter.filter(exchange(MockServerHttpRequest.post("/order/{id}/finalize", "1")), exchange -> Mono.never()).subscribe();
+        MockServerWebExchange timedOut = exchange(MockServerHttpRequest.post("/order/{id}/finalize", "1"));
+        filter.filter(timedOut, completing()).block();
+        running.dispose();
+
+        assertThat(timedOut.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(meterRegistry.get("order.admission.queued").tag("route", "write").gauge().value()).isZero();
+        assertThat(meterRegistry.get("order.admission.in.flight").tag("route", "write").gauge().value()).isZero();
+    }
+
+    @Test
+    void should_not_limit_requests_outside_of_order_api() {
+        config.getRead().setMaxConcurrent(1);
+        config.getRead().setMaxQueued(0);
+        AdmissionControlFilter filter = new AdmissionControlFilter(config, meterRegistry, nanoTime::get);
+
+        Disposable running = filter.filter(exchange(MockServerHttpRequest.get("/order")), exchange -> Mono.never()).subscribe();
+        MockServerWebExchange actuator = exchange(MockServerHttpRequest.get("/actuator/prometheus"));
+        filter.filter(actuator, completing()).block();
+        running.dispose();
+
+        assertThat(actuator.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private static MockServerWebExchange exchange(final MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+
+    private static WebFilterChain completing() {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+    }
+}
@@ -1,25 +1,37 @@
 package com.example.orderservice.api;
 
+import com.example.orderservice.config.AppConfig;
 import com.example.orderservice.model.*;
+import com.example.orderservice.service.IdempotencyService;
+import com.example.orderservice.service.OrderEventBus;
 import com.example.orderservice.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class OrderControllerTest {
@@ -83,6 +95,12 @@ class OrderControllerTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private OrderEventBus orderEventBus;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
     @InjectMocks
     private OrderController orderController;
 
@@ -91,7 +109,10 @@ class OrderControllerTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        webTestClient = WebTestClient.bindToController(orderController).build();
+        ObjectMapper objectMapper = new AppConfig().objectMapper();
+        webTestClient = WebTestClient.bindToController(orderController)
+                .httpMessageCodecs(new AppConfig().orderCodecCustomizer(objectMapper)::customize)
+                .build();
     }
 
     @Test
@@ -107,6 +128,40 @@ class OrderControllerTest {
                 .expectBody(Order.class);
     }
 
+    @Test
+    void should_create_order_through_idempotency_key() {
+        when(idempotencyService.executeCreate(eq("key-1"), any(), any()))
+                .thenReturn(Mono.just(ORDER));
+
+        webTestClient.post().uri("/order/{cartId}", UUID.randomUUID())
+                .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                .bodyValue(new CreateOrderRequestBody(CUSTOMER_INFO, DELIVERY_INFO))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.orderId").isEqualTo(ORDER.getOrderId().toString());
+
+        verify(orderService, never()).createOrder(any(), any(), any());
+    }
+
+    @Test
+    void should_finalize_order_through_idempotency_key() {
+        when(idempotencyService.executeFinalize(eq("key-2"), eq("finalize:" + ORDER.getOrderId()), any()))
+                .thenReturn(Mono.just(new FinalizeOrderResult(ORDER, false)));
+
+        webTestClient.post().uri("/order/{orderId}/finalize", ORDER.getOrderId())
+                .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key-2")
+                .bodyValue(PAYMENT_REQUEST)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(OrderController.ORDER_CHANGED_HEADER, "false");
+
+        verify(orderService, never()).finalizeOrder(any());
+    }
+
     @Test
     void should_return_error_for_wrong_url() {
         webTestClient.post().uri("/order/{orderId}/test", ORDER.getOrderId())
@@ -155,6 +210,37 @@ class OrderControllerTest {
                 .is5xxServerError();
     }
 
+    @Test
+    void should_stream_batch_order_results() {
+        when(orderService.createOrders(any()))
+                .thenReturn(Flux.just(new BatchOrderResult(0, UUID.randomUUID(), UUID.randomUUID(), 200, null),
+                        new BatchOrderResult(1, UUID.randomUUID(), null, 404, "Shopping cart not found")));
+
+        webTestClient.post().uri("/order/batch")
+                .bodyValue(List.of(new BatchOrderRequest(UUID.randomUUID(), CUSTOMER_INFO, DELIVERY_INFO),
+                        new BatchOrderRequest(UUID.randomUUID(), CUSTOMER_INFO, DELIVERY_INFO)))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(BatchOrderResult.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void should_return_bad_request_for_invalid_batch_entry() {
+        when(orderService.createOrders(any()))
+                .thenAnswer(invocation -> invocation.<Flux<BatchOrderRequest>>getArgument(0)
+                        .map(request -> new BatchOrderResult(0, request.cartId(), UUID.randomUUID(), 200, null)));
+
+        webTestClient.post().uri("/order/batch")
+                .bodyValue(List.of(new BatchOrderRequest(UUID.randomUUID(), INVALID_CUSTOMER_INFO, DELIVERY_INFO)))
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
     @Test
     void should_return_order() {
         when(orderService.retrieveOrder(any()))
@@ -167,6 +253,107 @@ class OrderControllerTest {
                 .expectBody(Order.class);
     }
 
+    @Test
+    void should_stream_filtered_orders() {
+        UUID afterId = UUID.randomUUID();
+        when(orderService.listOrders(any()))
+                .thenReturn(Flux.just(ORDER, ORDER));
+
+        webTestClient.get().uri("/order?email={email}&paid=true&category=BABY_PRODUCTS&afterTime=2023-10-01T10:15:30&afterId={afterId}&limit=2",
+                        CUSTOMER_INFO.getEmail(), afterId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Order.class)
+                .hasSize(2);
+
+        verify(orderService).listOrders(new OrderSearchCriteria(CUSTOMER_INFO.getEmail(), true, null, null, Category.BABY_PRODUCTS,
+                LocalDateTime.of(2023, 10, 1, 10, 15, 30), afterId, 2));
+    }
+
+    @Test
+    void should_stream_orders_as_smile() {
+        when(orderService.listOrders(any()))
+                .thenReturn(Flux.just(ORDER, ORDER));
+
+        webTestClient.get().uri("/order")
+                .accept(MediaType.valueOf(OrderController.APPLICATION_STREAM_SMILE_VALUE))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentTypeCompatibleWith(OrderController.APPLICATION_STREAM_SMILE_VALUE)
+                .expectBodyList(Order.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void should_return_bad_request_for_too_large_listing_page() {
+        webTestClient.get().uri("/order?limit=5000")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void should_stream_order_events_as_server_sent_events() {
+        when(orderEventBus.events(Set.of(OrderEventType.FINALIZED), "a1-41"))
+                .thenReturn(Flux.just(new OrderEvent("a1-42", OrderEventType.FINALIZED, ORDER.getOrderId(), LocalDateTime.now(), ORDER)));
+
+        webTestClient.get().uri("/order/events?types=FINALIZED")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "a1-41")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<OrderEvent>>() {
+                })
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNextMatches(event -> "a1-42".equals(event.id())
+                        && "FINALIZED".equals(event.event())
+                        && ORDER.getOrderId().equals(event.data().orderId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void should_stream_order_events_as_ndjson() {
+        when(orderEventBus.events(Set.of(), null))
+                .thenReturn(Flux.just(new OrderEvent("a1-1", OrderEventType.DELETED, ORDER.getOrderId(), LocalDateTime.now(), null)));
+
+        webTestClient.get().uri("/order/events")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(OrderEvent.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void should_return_order_summary_with_selected_fields() {
+        when(orderService.retrieveOrderSummary(any(), any()))
+                .thenReturn(Mono.just(OrderSummary.builder()
+                        .orderId(ORDER.getOrderId())
+                        .isPaid(true)
+                        .totalPrice(BigDecimal.TEN)
+                        .build()));
+
+        webTestClient.get().uri("/order/{orderId}/summary?fields=paid,totalPrice", ORDER.getOrderId())
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.paid").isEqualTo(true)
+                .jsonPath("$.totalPrice").isEqualTo(10)
+                .jsonPath("$.customerInfo").doesNotExist()
+                .jsonPath("$.products").doesNotExist();
+
+        verify(orderService).retrieveOrderSummary(ORDER.getOrderId(), List.of("paid", "totalPrice"));
+    }
+
     @Test
     void should_return_bad_request_for_invalid_orderId_format_for_retrieve() {
         webTestClient.get().uri("/order/{orderId}", NOT_UUID_STRING)
@@ -208,7 +395,7 @@ class OrderControllerTest {
     @Test
     void should_return_error_in_case_service_deletion_returned_error() {
         when(orderService.deleteOrder(any()))
-                .thenReturn(ERROR.then());
+                .thenReturn(Mono.error(new RuntimeException("Some error")));
 
         webTestClient.delete().uri("/order/{orderId}", ORDER.getOrderId())
                 .exchange()
@@ -216,19 +403,58 @@ class OrderControllerTest {
                 .is5xxServerError();
     }
 
+    @Test
+    void should_return_bulk_delete_result() {
+        when(orderService.deleteOrders(any()))
+                .thenReturn(Mono.just(new BulkDeleteResult(2, 1L)));
+
+        webTestClient.post().uri("/order/delete")
+                .bodyValue(new BulkDeleteRequest(List.of(UUID.randomUUID(), UUID.randomUUID())))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(BulkDeleteResult.class)
+                .isEqualTo(new BulkDeleteResult(2, 1L));
+    }
+
+    @Test
+    void should_return_bad_request_for_empty_bulk_delete() {
+        webTestClient.post().uri("/order/delete")
+                .bodyValue(new BulkDeleteRequest(List.of()))
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
     @Test
     void should_return_finalized_order() {
         when(orderService.finalizeOrder(any()))
-                .thenReturn(Mono.just(ORDER));
+                .thenReturn(Mono.just(new FinalizeOrderResult(ORDER, true)));
 
         webTestClient.post().uri("/order/{orderId}/finalize", ORDER.getOrderId())
                 .bodyValue(PAYMENT_REQUEST)
                 .exchange()
                 .expectStatus()
                 .isOk()
+                .expectHeader()
+                .valueEquals("Order-Changed", "true")
                 .expectBody(Order.class);
     }
 
+    @Test
+    void should_return_unchanged_order_for_repeated_finalize() {
+        when(orderService.finalizeOrder(any()))
+                .thenReturn(Mono.just(new FinalizeOrderResult(ORDER, false)));
+
+        webTestClient.post().uri("/order/{orderId}/finalize", ORDER.getOrderId())
+                .bodyValue(PAYMENT_REQUEST)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals("Order-Changed", "false");
+    }
+
     @Test
     void should_return_bad_request_for_invalid_request_body() {
         webTestClient.post().uri("/order/{orderId}/finalize", ORDER.getOrderId())
@@ -250,7 +476,7 @@ class OrderControllerTest {
     @Test
     void should_return_error_if_finalize_returned_error() {
         when(orderService.finalizeOrder(any()))
-                .thenReturn(ERROR);
+                .thenReturn(Mono.error(new RuntimeException("Some error")));
 
         webTestClient.post().uri("/order/{orderId}/finalize", ORDER.getOrderId())
                 .bodyValue(PAYMENT_REQUEST)
@@ -263,15 +489,54 @@ class OrderControllerTest {
     void should_return_success_for_orders_upload() {
         MultipartBodyBuilder builder = new MultipartBodyBuilder();
         builder.part("file", new ClassPathResource("orders1.json"));
-        when(orderService.uploadProducts(any()))
-                .thenReturn(Flux.just(ORDER));
+        when(orderService.uploadProducts(any(), eq(false)))
+                .thenReturn(Flux.just(new UploadBatchResult(0, 3, 3, 5, null)));
 
         webTestClient.post().uri("/order/upload")
                 .contentType(MediaType.MULTIPART_FORM_DATA)
                 .bodyValue(builder.build())
                 .exchange()
                 .expectStatus().isOk()
-                .expectBodyList(Order.class);
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(UploadBatchResult.class)
+                .hasSize(1);
     }
 
-}
\ No newline at end of file
+    @Test
+    void should_return_uploaded_order_ids_as_json_array() {
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("file", new ClassPathResource("orders1.json"));
+        UUID orderId = UUID.randomUUID();
+        when(orderService.uploadProducts(any(), eq(true)))
+                .thenReturn(Flux.just(new UploadBatchResult(0, 1, 1, 5, List.of(orderId))));
+
+        webTestClient.post().uri("/order/upload?includeIds=true")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(builder.build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].orderIds[0]").isEqualTo(orderId.toString());
+    }
+
+    @Test
+    void should_serve_and_accept_smile() {
+        when(orderService.createOrder(any(), any(), any()))
+                .thenReturn(Mono.just(ORDER));
+
+        webTestClient.post().uri("/order/{cartId}", UUID.randomUUID())
+                .contentType(MediaType.valueOf(OrderController.APPLICATION_SMILE_VALUE))
+                .accept(MediaType.valueOf(OrderController.APPLICATION_SMILE_VALUE))
+                .bodyValue(new CreateOrderRequestBody(CUSTOMER_INFO, DELIVERY_INFO))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(OrderController.APPLICATION_SMILE_VALUE)
+                .expectBody(Order.class)
+                .value(order -> assertThat(order.getOrderId()).isEqualTo(ORDER.getOrderId()));
+
+        verify(orderService).createOrder(any(), eq(CUSTOMER_INFO), eq(DELIVERY_INFO));
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.model.ShoppingCart;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShoppingClientTest {
+
+    private static final UUID CART_ID = UUID.randomUUID();
+    private static final UUID UNKNOWN_CART_ID = UUID.randomUUID();
+    private static final UUID FAILING_CART_ID = UUID.randomUUID();
+    private static final UUID FLAKY_CART_ID = UUID.randomUUID();
+    private static final UUID SLOW_FIRST_CART_ID = UUID.randomUUID();
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final Map<String, AtomicInteger> upstreamCallsByCart = new ConcurrentHashMap<>();
+
+    private DisposableServer shoppingService;
+
+    private ShoppingConfig config;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ShoppingClient shoppingClient;
+
+    @BeforeEach
+    public void setUp() {
+        shoppingService = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/shopping/cart/{cartId}", (request, response) -> {
+                    upstreamCalls.incrementAndGet();
+                    String cartId = request.param("cartId");
+                    int cartCalls = upstreamCallsByCart.computeIfAbsent(cartId, id -> new AtomicInteger()).incrementAndGet();
+                    if (FAILING_CART_ID.toString().equals(cartId) || (FLAKY_CART_ID.toString().equals(cartId) && cartCalls == 1)) {
+                        return response.status(500).send();
+                    }
+                    if (UNKNOWN_CART_ID.toString().equals(cartId)) {
+                        return response.status(404).send();
+                    }
+                    Duration delay = SLOW_FIRST_CART_ID.toString().equals(cartId) && cartCalls == 1
+                            ? Duration.ofSeconds(2)
+                            : Duration.ofMillis(100);
+                    return response.header("Content-Type", "application/json")
+                            .sendString(Mono.just("{\"id\":\"" + cartId + "\",\"products\":[]}").delayElement(delay));
+                }))
+                .bindNow();
+        config = new ShoppingConfig();
+        config.setUrl("http://localhost:" + shoppingService.port() + "/shopping/cart");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (shoppingClient != null) {
+            shoppingClient.destroy();
+        }
+        shoppingService.disposeNow();
+    }
+
+    @Test
+    void should_call_shopping_service_for_every_request_when_cache_is_disabled() {
+        shoppingClient = new ShoppingClient(WebClient.builder(), config, meterRegistry);
+
+        shoppingClient.getShoppingCart(CART_ID).block();
+        shoppingClient.getShoppingCart(CART_ID).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void should_serve_repeated_requests_from_cache() {
+        config.getCache().setEnabled(true);
+        shoppingClient = new ShoppingClient(WebClient.builder(), config, meterRegistry);
+
+        shoppingClient.getShoppingCart(CART_ID).block();
+        shoppingClient.getShoppingCart(CART_ID)
+                .as(StepVerifier::create)
+                .expectNextMatches(cart -> cart.getId().equals(CART_ID))
+                .expectComplete()
+                .verify();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_coalesce_concurrent_requests_for_the_same_cart() {
+        config.getCache().setEnabled(true);
+        shoppingClient = new ShoppingClient(WebClient.builder(), config, meterRegistry);
+
+        Flux.range(0, 10)
+                .flatMap(i -> shoppingClient.getShoppingCart(CART_ID))
+                .map(ShoppingCart::getId)
+                .as(StepVerifier::create)
+                .expectNextCount(10)
+                .expectComplete()
+                .verify();
+
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void should_not_cache_errors() {
+        config.getCache().setEnabled(true);
+        shoppingClient = new ShoppingClient(WebClient.builder(), config, meterRegistry);
+
+        shoppingClient.getShoppingCart(UNKNOWN_CART_ID)
+                .as(StepVerifier::create)
+                .expectError(ResponseStatusException.class)
+                .verify();
+        shoppingClient.getShoppingCart(UNKNOWN_CART_ID)
+                .as(StepVerifier::create)
+                .expectError(ResponseStatusException.class)
+                .verify();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void should_return_service_unavailable_when_response_timeout_elapses() {
+        config.getHttp().setResponseTimeout(Duration.ofMillis(20));
+        shoppingClient = new ShoppingClient(WebClient.builder(), config, meterRegistry);
+
+        shoppingClient.getShoppingCart(CART_ID)
+                .as(StepVerifier::create)
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(ResponseStatusException.class)
+                        .hasMessage("503 SERVICE_UNAVAILABLE \"Shopping service is unavailable\""))
+                .verify();
+    }
+
+    @Test
+    void should_retry_upstream_server_errors() {
+        shoppingClient = new ShoppingClient(WebClient.builder(), config, meterRegistry);
+
+        shoppingClient.getShoppingCart(FLAKY_CART_ID)
+                .as(StepVerifier::create)
+                .expectNextMatches(cart -> cart.getId().equals(FLAKY_CART_ID))
+                .expectComplete()
+                .verify();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(meterRegistry.get("shopping.client.retries").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_not_retry_missing_cart() {
+        shoppingClient = new ShoppingClient(WebClient.builder(), config, meterRegistry);
+
+        shoppingClient.getShoppingCart(UNKNOWN_CART_ID)
+                .as(StepVerifier::create)
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(ResponseStatusException.class)
+                        .hasMessage("404 NOT_FOUND \"Shopping cart not found\""))
+                .verify();
+
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void should_fail_fast_when_circuit_breaker_is_open() {
+        config.getResilience().getRetry().setMaxRetries(0);
+        config.getResilience().getCircuitBreaker().setSlidingWindowSize(2);
+        config.getResilience().getCircuitBreaker().setMinimumNumberOfCalls(2);
+        shoppingClient = new ShoppingClient(WebClient.builder(), config, meterRegistry);
+
+        for (int i = 0; i < 2; i++) {
+            shoppingClient.getShoppingCart(FAILING_CART_ID)
+                    .as(StepVerifier::create)
+                    .expectErrorSatisfies(error -> assertThat(error).hasMessage("500 INTERNAL_SERVER_ERROR \"Unexpected error occurred\""))
+                    .verify();
+        }
+        shoppingClient.getShoppingCart(CART_ID)
+                .as(StepVerifier::create)
+                .expectErrorSatisfies(error -> assertThat(error).hasMessage("503 SERVICE_UNAVAILABLE \"Shopping service is unavailable\""))
+                .verify();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(meterRegistry.get("shopping.client.rejected").tag("reason", "circuit_open").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("shopping.client.circuitbreaker.transitions").tag("to", "OPEN").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_reject_calls_exceeding_bulkhead() {
+        config.getResilience().getBulkhead().setMaxConcurrentCalls(1);
+        shoppingClient = new ShoppingClient(WebClient.builder(), config, meterRegistry);
+
+        Flux.merge(shoppingClient.getShoppingCart(CART_ID).map(cart -> "ok"),
+                        shoppingClient.getShoppingCart(CART_ID).map(cart -> "ok").onErrorReturn("rejected"))
+                .collectList()
+                .as(StepVerifier::create)
+                .expectNextMatches(results -> results.contains("ok") && results.contains("rejected"))
+                .expectComplete()
+                .verify();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(meterRegistry.get("shopping.client.rejected").tag("reason", "bulkhead_full").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_reject_without_retry_when_connection_pool_queue_is_full() {
+        config.getPool().setMaxConnections(1);
+        config.getPool().setPendingAcquireMaxCount(1);
+        shoppingClient = new ShoppingClient(WebClient.builder(), config, meterRegistry);
+
+        Flux.merge(shoppingClient.getShoppingCart(UUID.randomUUID()).map(cart -> "ok"),
+                        shoppingClient.getShoppingCart(UUID.randomUUID()).map(cart -> "ok"),
+                        shoppingClient.getShoppingCart(UUID.randomUUID()).map(cart -> "ok").onErrorReturn("rejected"))
+                .collectList()
+                .as(StepVerifier::create)
+                .expectNextMatches(results -> results.stream().filter("rejected"::equals).count() == 1)
+                .expectComplete()
+                .verify();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(meterRegistry.find("shopping.client.retries").counter().count()).isZero();
+        assertThat(meterRegistry.get("shopping.client.rejected").tag("reason", "pool_exhausted").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.calls").tag("kind", "failed").timer().count()).isZero();
+    }
+
+    @Test
+    void should_send_hedged_request_when_first_one_is_slow() {
+        config.getResilience().getHedge().setEnabled(true);
+        config.getResilience().getHedge().setDelay(Duration.ofMillis(50));
+        shoppingClient = new ShoppingClient(WebClient.builder(), config, meterRegistry);
+
+        shoppingClient.getShoppingCart(SLOW_FIRST_CART_ID)
+                .as(StepVerifier::create)
+                .expectNextMatches(cart -> cart.getId().equals(SLOW_FIRST_CART_ID))
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(meterRegistry.get("shopping.client.hedges").counter().count()).isEqualTo(1.0);
+    }
+}
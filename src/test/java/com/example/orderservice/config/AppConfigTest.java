@@ -0,0 +1,93 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.codec.CodecsAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.DecoderHttpMessageReader;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AppConfigTest {
+
+    private static final ResolvableType ORDER_TYPE = ResolvableType.forClass(Order.class);
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final MediaType STREAM_SMILE = MediaType.valueOf("application/stream+x-jackson-smile");
+
+    private final ServerCodecConfigurer configurer = configurer();
+
+    @Test
+    void should_read_json_as_json_and_smile_as_smile() {
+        assertThat(reader(MediaType.APPLICATION_JSON)).isInstanceOf(Jackson2JsonDecoder.class);
+        assertThat(reader(MediaType.APPLICATION_NDJSON)).isInstanceOf(Jackson2JsonDecoder.class);
+        assertThat(reader(SMILE)).isInstanceOf(Jackson2SmileDecoder.class);
+        assertThat(reader(STREAM_SMILE)).isInstanceOf(Jackson2SmileDecoder.class);
+    }
+
+    @Test
+    void should_write_json_as_json_and_smile_as_smile() {
+        assertThat(writer(MediaType.APPLICATION_JSON)).isInstanceOf(Jackson2JsonEncoder.class);
+        assertThat(writer(SMILE)).isInstanceOf(Jackson2SmileEncoder.class);
+        assertThat(writer(STREAM_SMILE)).isInstanceOf(Jackson2SmileEncoder.class);
+    }
+
+    @Test
+    void should_decode_with_tuned_mapper_in_web_client() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class, CodecsAutoConfiguration.class, WebClientAutoConfiguration.class))
+                .withUserConfiguration(AppConfig.class)
+                .run(context -> {
+                    List<HttpMessageReader<?>> readers = new ArrayList<>();
+                    context.getBean(WebClient.Builder.class)
+                            .codecs(codecs -> readers.addAll(codecs.getReaders()))
+                            .build();
+
+                    Object decoder = readers.stream()
+                            .filter(reader -> reader.canRead(ORDER_TYPE, MediaType.APPLICATION_JSON))
+                            .findFirst()
+                            .map(reader -> ((DecoderHttpMessageReader<?>) reader).getDecoder())
+                            .orElseThrow();
+                    assertThat(((Jackson2JsonDecoder) decoder).getObjectMapper()).isSameAs(context.getBean(ObjectMapper.class));
+                });
+    }
+
+    private Object reader(final MediaType mediaType) {
+        return configurer.getReaders().stream()
+                .filter(reader -> reader.canRead(ORDER_TYPE, mediaType))
+                .findFirst()
+                .map(reader -> ((DecoderHttpMessageReader<?>) reader).getDecoder())
+                .orElseThrow();
+    }
+
+    private Object writer(final MediaType mediaType) {
+        return configurer.getWriters().stream()
+                .filter(writer -> writer.canWrite(ORDER_TYPE, mediaType))
+                .findFirst()
+                .map(writer -> ((EncoderHttpMessageWriter<?>) writer).getEncoder())
+                .orElseThrow();
+    }
+
+    private static ServerCodecConfigurer configurer() {
+        AppConfig appConfig = new AppConfig();
+        ServerCodecConfigurer configurer = ServerCodecConfigurer.create();
+        appConfig.orderCodecCustomizer(appConfig.objectMapper()).customize(configurer);
+        return configurer;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.orderservice.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CallTimerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CallTimer callTimer;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        callTimer = new CallTimer("test.calls", meterRegistry);
+    }
+
+    @Test
+    void should_time_each_subscription() {
+        Mono<String> call = callTimer.time("get", Mono.just("value"));
+
+        call.block();
+        call.block();
+
+        assertThat(count("get", Outcome.SUCCESS)).isEqualTo(2);
+    }
+
+    @Test
+    void should_tag_failures_by_outcome() {
+        callTimer.time("get", Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .as(StepVerifier::create)
+                .verifyError();
+        callTimer.time("list", Flux.error(new DataAccessResourceFailureException("down")))
+                .as(StepVerifier::create)
+                .verifyError();
+        callTimer.time("get", Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST)))
+                .as(StepVerifier::create)
+                .verifyError();
+
+        assertThat(count("get", Outcome.NOT_FOUND)).isEqualTo(1);
+        assertThat(count("list", Outcome.UPSTREAM_ERROR)).isEqualTo(1);
+        assertThat(count("get", Outcome.CLIENT_ERROR)).isEqualTo(1);
+    }
+
+    @Test
+    void should_record_cancellation_once() {
+        callTimer.time("list", Flux.interval(Duration.ofMillis(1)))
+                .take(2)
+                .blockLast();
+        callTimer.time("get", Mono.just("value"))
+                .as(StepVerifier::create)
+                .expectNext("value")
+                .thenCancel()
+                .verify();
+
+        assertThat(count("list", Outcome.CANCELLED)).isEqualTo(1);
+        assertThat(count("get", Outcome.SUCCESS)).isEqualTo(1);
+        assertThat(meterRegistry.find("test.calls").tags("method", "get", "outcome", "cancelled").timer()).isNull();
+    }
+
+    private long count(final String method, final Outcome outcome) {
+        return meterRegistry.get("test.calls").tags("method", method, "outcome", outcome.tag()).timer().count();
+    }
+}
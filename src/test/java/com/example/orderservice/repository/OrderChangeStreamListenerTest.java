@@ -0,0 +1,106 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.CustomerInfo;
+import com.example.orderservice.model.DeliveryInfo;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderEvent;
+import com.example.orderservice.model.OrderEventType;
+import com.example.orderservice.service.OrderEventBus;
+import com.example.orderservice.service.OrderEventConfig;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonBinary;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderChangeStreamListenerTest {
+
+    private static final MappingMongoConverter CONVERTER = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+
+    private final UUID orderId = UUID.randomUUID();
+
+    private final List<OrderEvent> published = new CopyOnWriteArrayList<>();
+
+    private OrderChangeStream orderChangeStream;
+
+    private ReactiveMongoOperations mongoOperations;
+
+    private OrderChangeStreamListener listener;
+
+    private Disposable subscription;
+
+    @BeforeEach
+    public void setUp() {
+        OrderEventConfig config = new OrderEventConfig();
+        config.setSource(OrderEventConfig.Source.CHANGE_STREAM);
+        OrderEventBus orderEventBus = new OrderEventBus(config, new SimpleMeterRegistry());
+        subscription = orderEventBus.events(Set.of(), null).subscribe(published::add);
+        orderChangeStream = mock(OrderChangeStream.class);
+        mongoOperations = mock(ReactiveMongoOperations.class);
+        listener = new OrderChangeStreamListener(orderChangeStream, mongoOperations, config, orderEventBus);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        listener.stop();
+        subscription.dispose();
+    }
+
+    @Test
+    void should_not_publish_or_look_up_outbox_claim() {
+        when(orderChangeStream.changes()).thenReturn(Flux.just(update(new BsonDocument("outboxLease.owner", new BsonString("relay"))
+                .append("outboxLease.expiresAt", new BsonString("2024-01-01T00:00:00")))));
+
+        listener.onApplicationReady();
+
+        assertThat(published).isEmpty();
+        verify(mongoOperations, never()).findById(any(), any());
+    }
+
+    @Test
+    void should_look_up_finalized_order() {
+        Order order = new Order(orderId, null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), true, LocalDateTime.now(), null);
+        when(mongoOperations.findById(orderId, Order.class)).thenReturn(Mono.just(order));
+        when(orderChangeStream.changes()).thenReturn(Flux.just(update(new BsonDocument("isPaid", BsonBoolean.TRUE))));
+
+        listener.onApplicationReady();
+
+        assertThat(published).extracting(OrderEvent::type).containsExactly(OrderEventType.FINALIZED);
+        assertThat(published).extracting(OrderEvent::order).containsExactly(order);
+    }
+
+    private ChangeStreamEvent<Order> update(final BsonDocument updatedFields) {
+        ChangeStreamDocument<Document> raw = new ChangeStreamDocument<>("update", new BsonDocument(), null, null, null, null,
+                new BsonDocument("_id", new BsonBinary(orderId)), null, new UpdateDescription(List.of(), updatedFields),
+                null, null, null, null);
+        return new ChangeStreamEvent<>(raw, Order.class, CONVERTER);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Category;
+import com.example.orderservice.model.OrderSearchCriteria;
+import com.example.orderservice.service.RetentionConfig;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Import({OrderIndexInitializer.class, IndexConfig.class, RetentionConfig.class, OrderIndexTestIT.CommandCaptureConfig.class})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderIndexTestIT {
+
+    private static final int DOCUMENTS = 2_000_000;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final String COLLECTION = "orders";
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private OrderIndexInitializer orderIndexInitializer;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CommandCapture commandCapture;
+
+    @BeforeAll
+    void setUp() {
+        mongoTemplate.dropCollection(COLLECTION).block();
+        LocalDateTime now = LocalDateTime.now();
+        Flux.range(0, DOCUMENTS)
+                .map(i -> new Document("_id", UUID.randomUUID())
+                        .append("isPaid", i % 2 == 0)
+                        .append("insertDateTime", now.minusSeconds(i)))
+                .buffer(INSERT_BATCH_SIZE)
+                .concatMap(batch -> mongoTemplate.getCollection(COLLECTION).flatMap(collection -> Flux.from(collection.insertMany(batch)).next()))
+                .blockLast();
+        orderIndexInitializer.ensureIndexes().block();
+    }
+
+    @Test
+    void should_use_index_for_find_by_orderId() {
+        Document explain = explainIssued("find", orderRepository.findOrderByOrderId(UUID.randomUUID()));
+
+        assertIndexed(explain);
+    }
+
+    @Test
+    void should_use_index_for_delete_by_orderId() {
+        Document explain = explainIssued("delete", orderRepository.deleteOrderByOrderId(UUID.randomUUID()));
+
+        assertIndexed(explain);
+    }
+
+    @Test
+    void should_use_index_for_delete_by_orderIds() {
+        Document explain = explainIssued("delete", orderRepository.deleteByOrderIdIn(List.of(UUID.randomUUID(), UUID.randomUUID())));
+
+        assertIndexed(explain);
+    }
+
+    @Test
+    void should_use_index_without_sort_for_first_expired_chunk() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(DOCUMENTS / 2);
+        Document explain = explainIssued("find", orderRepository.findExpiredOrders(cutoff, null, null, 1000));
+
+        assertIndexed(explain);
+        assertThat(stages(explain)).doesNotContain("SORT");
+    }
+
+    @Test
+    void should_use_index_without_sort_for_next_expired_chunk() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(DOCUMENTS / 2);
+        Document explain = explainIssued("find", orderRepository.findExpiredOrders(cutoff, cutoff.minusSeconds(DOCUMENTS / 4), UUID.randomUUID(), 1000));
+
+        assertIndexed(explain);
+        assertThat(stages(explain)).doesNotContain("SORT");
+    }
+
+    @Test
+    void should_use_index_for_expired_order_delete() {
+        Document explain = explainIssued("delete", orderRepository.deleteExpiredOrders(List.of(UUID.randomUUID(), UUID.randomUUID()), LocalDateTime.now().minusYears(1)));
+
+        assertIndexed(explain);
+    }
+
+    @Test
+    void should_use_index_without_sort_for_paid_listing_page() {
+        LocalDateTime afterTime = LocalDateTime.now().minusSeconds(DOCUMENTS / 2);
+        OrderSearchCriteria criteria = new OrderSearchCriteria(null, true, null, null, null, afterTime, UUID.randomUUID(), null);
+        Document explain = explainIssued("find", orderRepository.findOrders(criteria, 100));
+
+        assertIndexed(explain);
+        assertThat(stages(explain)).doesNotContain("SORT");
+    }
+
+    @Test
+    void should_use_index_without_sort_for_category_listing_page() {
+        OrderSearchCriteria criteria = new OrderSearchCriteria(null, null, null, null, Category.BOOKS, null, null, null);
+        Document explain = explainIssued("find", orderRepository.findOrders(criteria, 100));
+
+        assertIndexed(explain);
+        assertThat(stages(explain)).doesNotContain("SORT");
+    }
+
+    @Test
+    void should_use_index_without_sort_for_outbox_claim() {
+        Document explain = explainIssued("find", orderRepository.claimOrdersWithPendingOutbox("index-test", 100, Duration.ofSeconds(30)));
+
+        assertIndexed(explain);
+        assertThat(stages(explain)).doesNotContain("SORT");
+    }
+
+    /**
+     * Runs the repository call and explains the first command of the given name it sent, so the plan checked is the
+     * one for the query Spring Data actually built.
+     */
+    private Document explainIssued(final String commandName, final Publisher<?> call) {
+        commandCapture.clear();
+        Flux.from(call).blockLast();
+        Document command = commandCapture.first(commandName);
+        command.keySet().removeIf(key -> key.startsWith("$") || key.equals("lsid"));
+        return explain(command);
+    }
+
+    private Document explain(final Document command) {
+        return mongoTemplate.executeCommand(new Document("explain", command).append("verbosity", "queryPlanner")).block();
+    }
+
+    private static void assertIndexed(final Document explain) {
+        List<String> stages = stages(explain);
+
+        assertThat(stages).doesNotContain("COLLSCAN");
+        assertThat(stages).anyMatch(stage -> stage.equals("IXSCAN") || stage.equals("IDHACK") || stage.startsWith("EXPRESS"));
+    }
+
+    private static List<String> stages(final Document explain) {
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        List<String> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+        return stages;
+    }
+
+    private static void collectStages(final Object plan, final List<String> stages) {
+        if (plan instanceof Document document) {
+            if (document.containsKey("stage")) {
+                stages.add(document.getString("stage"));
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (plan instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+
+    @TestConfiguration
+    static class CommandCaptureConfig {
+
+        @Bean
+        CommandCapture commandCapture() {
+            return new CommandCapture();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCaptureCustomizer(final CommandCapture commandCapture) {
+            return builder -> builder.addCommandListener(commandCapture);
+        }
+    }
+
+    static class CommandCapture implements CommandListener {
+
+        private final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void commandStarted(final CommandStartedEvent event) {
+            commands.add(event.getCommand().clone());
+        }
+
+        void clear() {
+            commands.clear();
+        }
+
+        Document first(final String commandName) {
+            return commands.stream()
+                    .filter(command -> command.getFirstKey().equals(commandName))
+                    .findFirst()
+                    .map(Document::new)
+                    .orElseThrow(() -> new AssertionError("No " + commandName + " command was sent"));
+        }
+    }
+}
@@ -1,17 +1,34 @@
 package com.example.orderservice.repository;
 
+import com.example.orderservice.model.BulkInsertResult;
+import com.example.orderservice.model.Category;
 import com.example.orderservice.model.CustomerInfo;
 import com.example.orderservice.model.DeliveryInfo;
 import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderEventType;
+import com.example.orderservice.model.OrderLine;
+import com.example.orderservice.model.OrderSearchCriteria;
+import com.example.orderservice.model.OrderSummaryField;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.model.Product;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @DataMongoTest
 class OrderRepositoryTestIT {
 
@@ -21,7 +38,7 @@ class OrderRepositoryTestIT {
     @Test
     void should_find_order_by_orderId() {
         UUID orderId = UUID.randomUUID();
-        orderRepository.save(new Order(orderId, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now())).block();
+        orderRepository.save(new Order(orderId, null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), null)).block();
 
         orderRepository.findOrderByOrderId(orderId)
                 .as(StepVerifier::create)
@@ -33,10 +50,11 @@ class OrderRepositoryTestIT {
     @Test
     void should_delete_order_by_orderId() {
         UUID orderId = UUID.randomUUID();
-        orderRepository.save(new Order(orderId, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now())).block();
+        orderRepository.save(new Order(orderId, null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), null)).block();
 
         orderRepository.deleteOrderByOrderId(orderId)
                 .as(StepVerifier::create)
+                .expectNext(1L)
                 .expectComplete()
                 .verify();
 
@@ -47,4 +65,217 @@ class OrderRepositoryTestIT {
                 .verify();
     }
 
-}
\ No newline at end of file
+    @Test
+    void should_bulk_insert_orders() {
+        List<Order> orders = List.of(
+                new Order(UUID.randomUUID(), null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), null),
+                new Order(UUID.randomUUID(), null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), null)
+        );
+
+        orderRepository.bulkInsert(orders, false)
+                .as(StepVerifier::create)
+                .expectNext(BulkInsertResult.of(2))
+                .expectComplete()
+                .verify();
+
+        orderRepository.findOrderByOrderId(orders.get(1).getOrderId())
+                .as(StepVerifier::create)
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void should_report_orders_not_inserted_by_bulk_insert() {
+        UUID duplicateOrderId = UUID.randomUUID();
+        List<Order> orders = List.of(
+                new Order(duplicateOrderId, null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), null),
+                new Order(duplicateOrderId, null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), null),
+                new Order(UUID.randomUUID(), null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), null)
+        );
+
+        orderRepository.bulkInsert(orders, false)
+                .as(StepVerifier::create)
+                .expectNext(new BulkInsertResult(2, Set.of(1)))
+                .expectComplete()
+                .verify();
+
+        orderRepository.bulkInsert(List.of(orders.get(2), new Order(UUID.randomUUID(), null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), null)), true)
+                .as(StepVerifier::create)
+                .expectNext(new BulkInsertResult(0, Set.of(0, 1)))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void should_delete_expired_orders_oldest_first() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(1);
+        UUID expiredOrderId = UUID.randomUUID();
+        UUID freshOrderId = UUID.randomUUID();
+        orderRepository.save(new Order(expiredOrderId, null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, cutoff.minusMinutes(1), null)).block();
+        orderRepository.save(new Order(freshOrderId, null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), null)).block();
+
+        List<Order> expiredOrders = orderRepository.findExpiredOrders(cutoff, null, null, 1000).collectList().block();
+        List<UUID> expiredOrderIds = expiredOrders.stream().map(Order::getOrderId).toList();
+
+        assertThat(expiredOrders).extracting(Order::getInsertDateTime).isSorted();
+        assertThat(orderRepository.findExpiredOrders(cutoff, expiredOrders.get(0).getInsertDateTime(), expiredOrderIds.get(0), 1000).collectList().block())
+                .extracting(Order::getOrderId)
+                .containsExactlyElementsOf(expiredOrderIds.subList(1, expiredOrderIds.size()));
+        orderRepository.deleteExpiredOrders(expiredOrderIds, cutoff)
+                .as(StepVerifier::create)
+                .expectNext((long) expiredOrderIds.size())
+                .expectComplete()
+                .verify();
+
+        orderRepository.findOrderByOrderId(expiredOrderId)
+                .as(StepVerifier::create)
+                .expectComplete()
+                .verify();
+
+        orderRepository.findOrderByOrderId(freshOrderId)
+                .as(StepVerifier::create)
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void should_mark_order_as_paid_only_once() {
+        UUID orderId = UUID.randomUUID();
+        orderRepository.save(new Order(orderId, null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), null)).block();
+
+        orderRepository.markPaid(orderId, OutboxEvent.of(OrderEventType.FINALIZED))
+                .as(StepVerifier::create)
+                .expectNextMatches(Order::isPaid)
+                .expectComplete()
+                .verify();
+
+        orderRepository.markPaid(orderId, OutboxEvent.of(OrderEventType.FINALIZED))
+                .as(StepVerifier::create)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void should_delete_orders_by_orderId_in() {
+        UUID orderId = UUID.randomUUID();
+        orderRepository.save(new Order(orderId, null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), null)).block();
+
+        orderRepository.deleteByOrderIdIn(List.of(orderId, UUID.randomUUID()))
+                .as(StepVerifier::create)
+                .expectNext(1L)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void should_find_order_summary_with_computed_totals() {
+        UUID orderId = UUID.randomUUID();
+        List<Product> products = List.of(
+                Product.builder().id(UUID.randomUUID()).price(new BigDecimal("10.50")).build(),
+                Product.builder().id(UUID.randomUUID()).price(new BigDecimal("2.25")).build());
+        orderRepository.save(new Order(orderId, products, null, new CustomerInfo(), new DeliveryInfo(), true, LocalDateTime.now(), null)).block();
+
+        orderRepository.findOrderSummary(orderId, EnumSet.of(OrderSummaryField.PAID, OrderSummaryField.ITEM_COUNT, OrderSummaryField.TOTAL_PRICE))
+                .as(StepVerifier::create)
+                .expectNextMatches(summary -> summary.getOrderId().equals(orderId)
+                        && summary.getIsPaid()
+                        && summary.getItemCount() == 2
+                        && summary.getTotalPrice().compareTo(new BigDecimal("12.75")) == 0
+                        && summary.getCustomerInfo() == null)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void should_page_through_orders_with_cursor() {
+        String email = UUID.randomUUID() + "@test.com";
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        CustomerInfo customerInfo = CustomerInfo.builder().email(email).build();
+        List<Order> orders = List.of(
+                new Order(UUID.randomUUID(), null, Collections.emptyList(), customerInfo, new DeliveryInfo(), false, now, null),
+                new Order(UUID.randomUUID(), null, Collections.emptyList(), customerInfo, new DeliveryInfo(), false, now, null),
+                new Order(UUID.randomUUID(), null, Collections.emptyList(), customerInfo, new DeliveryInfo(), false, now.minusMinutes(1), null));
+        orderRepository.saveAll(orders).blockLast();
+
+        List<Order> firstPage = orderRepository.findOrders(new OrderSearchCriteria(email, null, null, null, null, null, null, null), 2)
+                .collectList()
+                .block();
+        Order last = firstPage.get(1);
+        List<Order> secondPage = orderRepository.findOrders(new OrderSearchCriteria(email, null, null, null, null, last.getInsertDateTime(), last.getOrderId(), null), 2)
+                .collectList()
+                .block();
+
+        assertThat(firstPage).extracting(Order::getInsertDateTime).containsOnly(now);
+        assertThat(secondPage).extracting(Order::getOrderId).containsExactly(orders.get(2).getOrderId());
+        assertThat(Flux.concat(Flux.fromIterable(firstPage), Flux.fromIterable(secondPage)).map(Order::getOrderId).distinct().count().block()).isEqualTo(3);
+    }
+
+    @Test
+    void should_find_orders_stored_with_products_by_category() {
+        UUID legacyOrderId = UUID.randomUUID();
+        UUID orderId = UUID.randomUUID();
+        String email = UUID.randomUUID() + "@test.com";
+        CustomerInfo customerInfo = CustomerInfo.builder().email(email).build();
+        Product product = Product.builder().id(UUID.randomUUID()).categories(List.of(Category.BOOKS)).build();
+        orderRepository.save(new Order(legacyOrderId, List.of(product), null, customerInfo, new DeliveryInfo(), false, LocalDateTime.now(), null)).block();
+        orderRepository.save(new Order(orderId, null, OrderLine.fromProducts(List.of(product)), customerInfo, new DeliveryInfo(), false, LocalDateTime.now(), null)).block();
+
+        orderRepository.findOrders(new OrderSearchCriteria(email, null, null, null, Category.BOOKS, null, null, null), 10)
+                .map(Order::getOrderId)
+                .collectList()
+                .as(StepVerifier::create)
+                .expectNextMatches(orderIds -> orderIds.size() == 2 && orderIds.containsAll(List.of(legacyOrderId, orderId)))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void should_claim_and_acknowledge_pending_outbox_events() {
+        UUID orderId = UUID.randomUUID();
+        OutboxEvent created = OutboxEvent.of(OrderEventType.CREATED);
+        orderRepository.save(new Order(orderId, null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), List.of(created))).block();
+        orderRepository.markPaid(orderId, OutboxEvent.of(OrderEventType.FINALIZED)).block();
+
+        orderRepository.claimOrdersWithPendingOutbox("relay-1", 1000, Duration.ofMinutes(1))
+                .filter(order -> order.getOrderId().equals(orderId))
+                .as(StepVerifier::create)
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+        orderRepository.claimOrdersWithPendingOutbox("relay-2", 1000, Duration.ofMinutes(1))
+                .filter(order -> order.getOrderId().equals(orderId))
+                .as(StepVerifier::create)
+                .expectComplete()
+                .verify();
+
+        orderRepository.removeOutboxEvents("relay-1", Map.of(orderId, List.of(created.getEventId())))
+                .then(orderRepository.findOrderByOrderId(orderId))
+                .as(StepVerifier::create)
+                .expectNextMatches(order -> order.getOutbox().size() == 1 && order.getOutbox().get(0).getType() == OrderEventType.FINALIZED)
+                .expectComplete()
+                .verify();
+        orderRepository.claimOrdersWithPendingOutbox("relay-2", 1000, Duration.ofMinutes(1))
+                .filter(order -> order.getOrderId().equals(orderId))
+                .as(StepVerifier::create)
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void should_release_outbox_claim() {
+        UUID orderId = UUID.randomUUID();
+        orderRepository.save(new Order(orderId, null, Collections.emptyList(), new CustomerInfo(), new DeliveryInfo(), false, LocalDateTime.now(), List.of(OutboxEvent.of(OrderEventType.CREATED)))).block();
+        orderRepository.claimOrdersWithPendingOutbox("relay-1", 1000, Duration.ofMinutes(1)).blockLast();
+
+        orderRepository.releaseOutboxClaim("relay-1")
+                .thenMany(orderRepository.claimOrdersWithPendingOutbox("relay-2", 1000, Duration.ofMinutes(1)))
+                .filter(order -> order.getOrderId().equals(orderId))
+                .as(StepVerifier::create)
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.config.AppConfig;
+import com.example.orderservice.model.CreateOrderRequestBody;
+import com.example.orderservice.model.CustomerInfo;
+import com.example.orderservice.model.FinalizeOrderResult;
+import com.example.orderservice.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyServiceTest {
+
+    private static final Order ORDER = Order.builder().orderId(UUID.randomUUID()).build();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private IdempotencyService idempotencyService;
+
+    private AtomicInteger executions;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = new IdempotencyService(new InMemoryIdempotencyStore(new IdempotencyConfig(), meterRegistry), new AppConfig().objectMapper(), meterRegistry);
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void should_replay_stored_response_without_executing_again() {
+        String key = UUID.randomUUID().toString();
+
+        idempotencyService.executeFinalize(key, "finalize", this::finalizeOrder)
+                .as(StepVerifier::create)
+                .expectNextMatches(result -> result.order().equals(ORDER) && result.changed())
+                .verifyComplete();
+        idempotencyService.executeFinalize(key, "finalize", this::finalizeOrder)
+                .as(StepVerifier::create)
+                .expectNextMatches(result -> result.order().equals(ORDER) && result.changed())
+                .verifyComplete();
+
+        assertThat(executions).hasValue(1);
+        assertThat(meterRegistry.get("order.idempotency.requests").tag("outcome", "replayed").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_replay_created_order() {
+        String key = UUID.randomUUID().toString();
+
+        idempotencyService.executeCreate(key, "create", this::createOrder)
+                .as(StepVerifier::create)
+                .expectNext(ORDER)
+                .verifyComplete();
+        idempotencyService.executeCreate(key, "create", this::createOrder)
+                .as(StepVerifier::create)
+                .expectNext(ORDER)
+                .verifyComplete();
+
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void should_fingerprint_request_by_its_content() {
+        CreateOrderRequestBody body = new CreateOrderRequestBody(CustomerInfo.builder().email("joe@example.com").build(), null);
+
+        assertThat(idempotencyService.fingerprint("create:1", body))
+                .isEqualTo(idempotencyService.fingerprint("create:1", new CreateOrderRequestBody(CustomerInfo.builder().email("joe@example.com").build(), null)))
+                .isNotEqualTo(idempotencyService.fingerprint("create:1", new CreateOrderRequestBody(CustomerInfo.builder().email("ann@example.com").build(), null)))
+                .isNotEqualTo(idempotencyService.fingerprint("create:2", body))
+                .matches("create:1:[0-9a-f]{64}");
+    }
+
+    @Test
+    void should_collapse_concurrent_duplicates_into_single_execution() {
+        String key = UUID.randomUUID().toString();
+        Sinks.One<FinalizeOrderResult> response = Sinks.one();
+
+        Mono<FinalizeOrderResult> first = idempotencyService.executeFinalize(key, "finalize", () -> {
+            executions.incrementAndGet();
+            return response.asMono();
+        });
+        Mono<FinalizeOrderResult> second = idempotencyService.executeFinalize(key, "finalize", this::finalizeOrder);
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> response.tryEmitValue(new FinalizeOrderResult(ORDER, true)))
+                .expectNextMatches(results -> results.getT1().order().equals(ORDER) && results.getT2().order().equals(ORDER))
+                .verifyComplete();
+
+        assertThat(executions).hasValue(1);
+        assertThat(meterRegistry.get("order.idempotency.requests").tag("outcome", "coalesced").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_reject_key_reused_for_different_request() {
+        String key = UUID.randomUUID().toString();
+        idempotencyService.executeFinalize(key, "finalize", this::finalizeOrder).block();
+
+        idempotencyService.executeCreate(key, "create", this::createOrder)
+                .as(StepVerifier::create)
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(ResponseStatusException.class)
+                        .hasMessage("422 UNPROCESSABLE_ENTITY \"Idempotency-Key was already used for a different request\""))
+                .verify();
+    }
+
+    @Test
+    void should_not_store_failed_response() {
+        String key = UUID.randomUUID().toString();
+
+        idempotencyService.executeFinalize(key, "finalize", () -> Mono.error(new IllegalStateException("Failure")))
+                .as(StepVerifier::create)
+                .expectError(IllegalStateException.class)
+                .verify();
+        idempotencyService.executeFinalize(key, "finalize", this::finalizeOrder)
+                .as(StepVerifier::create)
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void should_return_bad_request_for_too_long_key() {
+        idempotencyService.executeFinalize("k".repeat(256), "finalize", this::finalizeOrder)
+                .as(StepVerifier::create)
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(ResponseStatusException.class)
+                        .hasMessage("400 BAD_REQUEST \"Idempotency-Key must have between 1 and 255 characters\""))
+                .verify();
+
+        assertThat(executions).hasValue(0);
+    }
+
+    private Mono<Order> createOrder() {
+        return Mono.fromSupplier(() -> {
+            executions.incrementAndGet();
+            return ORDER;
+        });
+    }
+
+    private Mono<FinalizeOrderResult> finalizeOrder() {
+        return Mono.fromSupplier(() -> {
+            executions.incrementAndGet();
+            return new FinalizeOrderResult(ORDER, true);
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.OutboxMessage;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxMessage> messages = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean failing = new AtomicBoolean();
+
+    @Override
+    public Mono<Void> publish(final List<OutboxMessage> batch) {
+        return Mono.defer(() -> failing.get()
+                ? Mono.error(new IllegalStateException("Sink unavailable"))
+                : Mono.fromRunnable(() -> messages.addAll(batch)));
+    }
+
+    List<OutboxMessage> getMessages() {
+        return messages;
+    }
+
+    void setFailing(final boolean failing) {
+        this.failing.set(failing);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderCacheTest {
+
+    private static final UUID ORDER_ID = UUID.randomUUID();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OrderCache local;
+
+    private OrderCache remote;
+
+    @BeforeEach
+    public void setUp() {
+        InMemoryCacheInvalidationTransport transport = new InMemoryCacheInvalidationTransport();
+        meterRegistry = new SimpleMeterRegistry();
+        local = new OrderCache(new OrderCacheConfig(), transport, meterRegistry);
+        remote = new OrderCache(new OrderCacheConfig(), transport, new SimpleMeterRegistry());
+        local.listen();
+        remote.listen();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        local.stop();
+        remote.stop();
+    }
+
+    @Test
+    void should_evict_order_finalized_on_another_instance() {
+        Order unpaid = Order.builder().orderId(ORDER_ID).isPaid(false).build();
+        Order paid = Order.builder().orderId(ORDER_ID).isPaid(true).build();
+        AtomicInteger lookups = new AtomicInteger();
+        local.get(ORDER_ID, countingLoader(lookups, unpaid)).block();
+
+        remote.update(paid);
+
+        assertThat(local.get(ORDER_ID, countingLoader(lookups, paid)).block()).isEqualTo(paid);
+        assertThat(lookups).hasValue(2);
+        assertThat(meterRegistry.get("order.cache.invalidations.received").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("order.cache.invalidation.lag").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_announce_created_orders() {
+        remote.putAll(List.of(Order.builder().orderId(ORDER_ID).build()));
+        remote.put(Order.builder().orderId(UUID.randomUUID()).build());
+
+        assertThat(meterRegistry.get("order.cache.invalidations.received").counter().count()).isZero();
+    }
+
+    @Test
+    void should_keep_own_writes_cached() {
+        Order order = Order.builder().orderId(ORDER_ID).build();
+        AtomicInteger lookups = new AtomicInteger();
+
+        local.update(order);
+
+        assertThat(local.get(ORDER_ID, countingLoader(lookups, order)).block()).isEqualTo(order);
+        assertThat(lookups).hasValue(0);
+        assertThat(meterRegistry.get("order.cache.invalidations.published").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("order.cache.invalidations.received").counter().count()).isZero();
+    }
+
+    private static Function<UUID, Mono<Order>> countingLoader(final AtomicInteger lookups, final Order order) {
+        return id -> Mono.fromSupplier(() -> {
+            lookups.incrementAndGet();
+            return order;
+        });
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.OrderEvent;
+import com.example.orderservice.model.OrderEventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderEventBusTest {
+
+    private OrderEventConfig config;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OrderEventBus orderEventBus;
+
+    @BeforeEach
+    public void setUp() {
+        config = new OrderEventConfig();
+        config.setHistorySize(3);
+        meterRegistry = new SimpleMeterRegistry();
+        orderEventBus = new OrderEventBus(config, meterRegistry);
+    }
+
+    @Test
+    void should_stream_live_events_of_requested_types() {
+        UUID orderId = UUID.randomUUID();
+        List<OrderEvent> received = new CopyOnWriteArrayList<>();
+
+        Disposable subscription = orderEventBus.events(Set.of(OrderEventType.FINALIZED), null).subscribe(received::add);
+        orderEventBus.publish(OrderEventType.CREATED, orderId, null);
+        orderEventBus.publish(OrderEventType.FINALIZED, orderId, null);
+        subscription.dispose();
+
+        assertThat(received).extracting(OrderEvent::type).containsExactly(OrderEventType.FINALIZED);
+        assertThat(received).extracting(OrderEvent::orderId).containsExactly(orderId);
+        assertThat(meterRegistry.get("order.events.subscribers").gauge().value()).isZero();
+    }
+
+    @Test
+    void should_replay_events_after_last_event_id() {
+        List<String> ids = publish(5);
+
+        orderEventBus.events(Set.of(), ids.get(2))
+                .map(OrderEvent::id)
+                .as(StepVerifier::create)
+                .expectNext(ids.get(3), ids.get(4))
+                .then(() -> orderEventBus.publish(OrderEventType.DELETED, UUID.randomUUID(), null))
+                .expectNextMatches(id -> sequence(id) == 6)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void should_replay_retained_history_when_last_event_id_expired() {
+        List<String> ids = publish(5);
+
+        orderEventBus.events(Set.of(), ids.get(0))
+                .map(OrderEvent::id)
+                .as(StepVerifier::create)
+                .expectNext(ids.get(2), ids.get(3), ids.get(4))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void should_stream_from_now_for_event_id_of_other_instance() {
+        List<String> ids = publish(2);
+        OrderEventBus restarted = new OrderEventBus(config, meterRegistry);
+        restarted.publish(OrderEventType.CREATED, UUID.randomUUID(), null);
+
+        restarted.events(Set.of(), ids.get(0))
+                .map(OrderEvent::id)
+                .as(StepVerifier::create)
+                .then(() -> restarted.publish(OrderEventType.DELETED, UUID.randomUUID(), null))
+                .expectNextMatches(id -> sequence(id) == 2 && !ids.contains(id))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void should_stream_from_now_for_unknown_or_future_event_id() {
+        List<String> ids = publish(2);
+        String epoch = ids.get(0).substring(0, ids.get(0).lastIndexOf('-'));
+
+        for (String lastEventId : List.of(epoch + "-99", epoch + "-x", "42")) {
+            orderEventBus.events(Set.of(), lastEventId)
+                    .map(OrderEvent::id)
+                    .as(StepVerifier::create)
+                    .expectSubscription()
+                    .expectNoEvent(Duration.ofMillis(10))
+                    .thenCancel()
+                    .verify();
+        }
+    }
+
+    @Test
+    void should_drop_events_for_slow_subscriber() {
+        config.setSubscriberBufferSize(2);
+        config.setOverflow(BufferOverflowStrategy.DROP_OLDEST);
+
+        StepVerifier.create(orderEventBus.events(Set.of(), null), 0)
+                .then(() -> {
+                    for (int i = 0; i < 5; i++) {
+                        orderEventBus.publish(OrderEventType.CREATED, UUID.randomUUID(), null);
+                    }
+                })
+                .thenRequest(2)
+                .expectNextMatches(event -> sequence(event.id()) == 4)
+                .expectNextMatches(event -> sequence(event.id()) == 5)
+                .thenCancel()
+                .verify();
+
+        assertThat(meterRegistry.get("order.events.dropped").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void should_deliver_every_event_of_concurrent_publishers() throws Exception {
+        List<OrderEvent> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = orderEventBus.events(Set.of(), null).subscribe(received::add);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 400; i++) {
+            executor.execute(() -> orderEventBus.publish(OrderEventType.CREATED, UUID.randomUUID(), null));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        subscription.dispose();
+
+        assertThat(received).extracting(OrderEvent::id).doesNotHaveDuplicates().hasSize(400);
+        assertThat(received).extracting(event -> sequence(event.id())).isSorted();
+    }
+
+    @Test
+    void should_ignore_local_changes_when_sourced_from_change_stream() {
+        config.setSource(OrderEventConfig.Source.CHANGE_STREAM);
+        List<OrderEvent> received = new CopyOnWriteArrayList<>();
+
+        Disposable subscription = orderEventBus.events(Set.of(), null).subscribe(received::add);
+        orderEventBus.publishLocal(OrderEventType.CREATED, UUID.randomUUID(), null);
+        subscription.dispose();
+
+        assertThat(received).isEmpty();
+    }
+
+    private List<String> publish(final int count) {
+        List<OrderEvent> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = orderEventBus.events(Set.of(), null).subscribe(received::add);
+        for (int i = 0; i < count; i++) {
+            orderEventBus.publish(OrderEventType.CREATED, UUID.randomUUID(), null);
+        }
+        subscription.dispose();
+        return received.stream().map(OrderEvent::id).toList();
+    }
+
+    private static long sequence(final String eventId) {
+        return Long.parseLong(eventId.substring(eventId.lastIndexOf('-') + 1));
+    }
+}
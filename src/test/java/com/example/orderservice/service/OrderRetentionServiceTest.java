@@ -0,0 +1,113 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderRetentionServiceTest {
+
+    private static final UUID FIRST_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID SECOND_ID = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final UUID THIRD_ID = UUID.fromString("00000000-0000-0000-0000-000000000003");
+    private static final LocalDateTime INSERTED_AT = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderCache orderCache;
+
+    private RetentionConfig config;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OrderRetentionService orderRetentionService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new RetentionConfig();
+        config.setChunkSize(2);
+        config.setChunkDelay(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        orderRetentionService = new OrderRetentionService(orderRepository, config, orderCache, meterRegistry);
+    }
+
+    @Test
+    void should_purge_expired_orders_in_chunks_oldest_first() {
+        when(orderRepository.findExpiredOrders(any(), isNull(), isNull(), eq(2))).thenReturn(Flux.just(expired(FIRST_ID, 3), expired(SECOND_ID, 2)));
+        when(orderRepository.findExpiredOrders(any(), eq(INSERTED_AT.minusMinutes(2)), eq(SECOND_ID), eq(2))).thenReturn(Flux.just(expired(THIRD_ID, 1)));
+        when(orderRepository.deleteExpiredOrders(eq(List.of(FIRST_ID, SECOND_ID)), any())).thenReturn(Mono.just(2L));
+        when(orderRepository.deleteExpiredOrders(eq(List.of(THIRD_ID)), any())).thenReturn(Mono.just(1L));
+
+        orderRetentionService.purgeExpiredOrders()
+                .as(StepVerifier::create)
+                .expectNext(3L)
+                .expectComplete()
+                .verify();
+
+        assertThat(meterRegistry.get("order.retention.deleted").counter().count()).isEqualTo(3.0);
+        verify(orderCache).evictAll(List.of(FIRST_ID, SECOND_ID));
+        verify(orderCache).evictAll(List.of(THIRD_ID));
+        assertThat(meterRegistry.get("order.retention.chunk").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("order.retention.run").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_skip_purge_while_previous_one_is_running() {
+        Sinks.One<Long> pendingDelete = Sinks.one();
+        when(orderRepository.findExpiredOrders(any(), isNull(), isNull(), eq(2))).thenReturn(Flux.just(expired(FIRST_ID, 1)));
+        when(orderRepository.deleteExpiredOrders(any(), any())).thenReturn(pendingDelete.asMono());
+
+        AtomicLong firstRunDeleted = new AtomicLong();
+        orderRetentionService.purgeExpiredOrders().subscribe(firstRunDeleted::set);
+
+        orderRetentionService.purgeExpiredOrders()
+                .as(StepVerifier::create)
+                .expectComplete()
+                .verify();
+
+        pendingDelete.tryEmitValue(1L);
+
+        assertThat(firstRunDeleted.get()).isEqualTo(1L);
+
+        assertThat(meterRegistry.get("order.retention.skipped").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_not_purge_when_ttl_index_is_used() {
+        config.setMode(RetentionConfig.Mode.TTL);
+
+        orderRetentionService.purgeExpiredOrders()
+                .as(StepVerifier::create)
+                .expectComplete()
+                .verify();
+
+        verifyNoInteractions(orderRepository);
+    }
+
+    private static Order expired(final UUID orderId, final int minutesOld) {
+        return Order.builder()
+                .orderId(orderId)
+                .insertDateTime(INSERTED_AT.minusMinutes(minutesOld))
+                .build();
+    }
+}
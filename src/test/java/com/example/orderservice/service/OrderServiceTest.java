@@ -4,14 +4,18 @@ package com.example.orderservice.service;
 import com.example.orderservice.client.ShoppingClient;
 import com.example.orderservice.model.*;
 import com.example.orderservice.repository.OrderRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
-import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.web.server.ResponseStatusException;
@@ -22,11 +26,13 @@ import reactor.test.StepVerifier;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class OrderServiceTest {
@@ -132,17 +138,29 @@ class OrderServiceTest {
     private ShoppingClient shoppingClient;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private FilePart filePart;
 
     @Mock
-    private FilePart filePart;
+    private OrderEventBus orderEventBus;
+
+    private UploadConfig uploadConfig;
+
+    private BatchConfig batchConfig;
+
+    private SimpleMeterRegistry meterRegistry;
 
     private OrderService orderService;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        orderService = new OrderService(orderRepository, shoppingClient, objectMapper);
+        when(filePart.headers()).thenReturn(new HttpHeaders());
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        uploadConfig = new UploadConfig();
+        batchConfig = new BatchConfig();
+        meterRegistry = new SimpleMeterRegistry();
+        orderService = new OrderService(orderRepository, shoppingClient, new OrderUploadParser(objectMapper, uploadConfig), uploadConfig, batchConfig, orderEventBus,
+                new OrderCache(new OrderCacheConfig(), new InMemoryCacheInvalidationTransport(), meterRegistry), meterRegistry);
     }
 
     @Test
@@ -156,6 +174,78 @@ class OrderServiceTest {
                 .verify();
     }
 
+    @Test
+    void should_serve_repeated_reads_from_cache() {
+        when(orderRepository.findOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.just(ORDER));
+
+        orderService.retrieveOrder(ORDER.getOrderId()).block();
+        orderService.retrieveOrder(ORDER.getOrderId())
+                .as(StepVerifier::create)
+                .expectNext(ORDER)
+                .expectComplete()
+                .verify();
+
+        verify(orderRepository, times(1)).findOrderByOrderId(ORDER.getOrderId());
+        assertThat(meterRegistry.get("order.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void should_answer_unknown_order_from_negative_cache() {
+        when(orderRepository.findOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.empty());
+
+        for (int i = 0; i < 3; i++) {
+            orderService.retrieveOrder(ORDER.getOrderId())
+                    .as(StepVerifier::create)
+                    .expectErrorSatisfies(error -> assertThat(error).isInstanceOf(ResponseStatusException.class))
+                    .verify();
+        }
+
+        verify(orderRepository, times(1)).findOrderByOrderId(ORDER.getOrderId());
+    }
+
+    @Test
+    void should_update_cached_order_on_finalize() {
+        Order paidOrder = Order.builder().orderId(ORDER.getOrderId()).isPaid(true).build();
+        when(orderRepository.findOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.just(ORDER));
+        when(orderRepository.markPaid(eq(ORDER.getOrderId()), any())).thenReturn(Mono.just(paidOrder));
+
+        orderService.retrieveOrder(ORDER.getOrderId()).block();
+        orderService.finalizeOrder(ORDER.getOrderId()).block();
+
+        orderService.retrieveOrder(ORDER.getOrderId())
+                .as(StepVerifier::create)
+                .expectNext(paidOrder)
+                .expectComplete()
+                .verify();
+        verify(orderRepository, times(1)).findOrderByOrderId(ORDER.getOrderId());
+    }
+
+    @Test
+    void should_evict_cached_order_on_delete() {
+        when(orderRepository.findOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.just(ORDER));
+        when(orderRepository.deleteOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.just(1L));
+
+        orderService.retrieveOrder(ORDER.getOrderId()).block();
+        orderService.deleteOrder(ORDER.getOrderId()).block();
+        orderService.retrieveOrder(ORDER.getOrderId()).block();
+
+        verify(orderRepository, times(2)).findOrderByOrderId(ORDER.getOrderId());
+    }
+
+    @Test
+    void should_read_through_when_cache_is_disabled() {
+        OrderCacheConfig cacheConfig = new OrderCacheConfig();
+        cacheConfig.setEnabled(false);
+        orderService = new OrderService(orderRepository, shoppingClient, new OrderUploadParser(new ObjectMapper(), uploadConfig), uploadConfig, batchConfig, orderEventBus,
+                new OrderCache(cacheConfig, new InMemoryCacheInvalidationTransport(), meterRegistry), meterRegistry);
+        when(orderRepository.findOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.just(ORDER));
+
+        orderService.retrieveOrder(ORDER.getOrderId()).block();
+        orderService.retrieveOrder(ORDER.getOrderId()).block();
+
+        verify(orderRepository, times(2)).findOrderByOrderId(ORDER.getOrderId());
+    }
+
     @Test
     void should_not_return_order_if_it_does_not_exist() {
         when(orderRepository.findOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.empty());
@@ -170,26 +260,98 @@ class OrderServiceTest {
                 .verify();
     }
 
+    @Test
+    void should_return_order_summary_with_requested_fields() {
+        OrderSummary summary = OrderSummary.builder()
+                .orderId(ORDER.getOrderId())
+                .isPaid(false)
+                .totalPrice(BigDecimal.TEN)
+                .build();
+        when(orderRepository.findOrderSummary(eq(ORDER.getOrderId()), any())).thenReturn(Mono.just(summary));
+
+        orderService.retrieveOrderSummary(ORDER.getOrderId(), List.of("paid", "totalPrice"))
+                .as(StepVerifier::create)
+                .expectNext(summary)
+                .expectComplete()
+                .verify();
+
+        verify(orderRepository).findOrderSummary(ORDER.getOrderId(), EnumSet.of(OrderSummaryField.PAID, OrderSummaryField.TOTAL_PRICE));
+    }
+
+    @Test
+    void should_return_all_summary_fields_by_default() {
+        when(orderRepository.findOrderSummary(eq(ORDER.getOrderId()), any())).thenReturn(Mono.just(new OrderSummary()));
+
+        orderService.retrieveOrderSummary(ORDER.getOrderId(), null)
+                .as(StepVerifier::create)
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+
+        verify(orderRepository).findOrderSummary(ORDER.getOrderId(), EnumSet.allOf(OrderSummaryField.class));
+    }
+
+    @Test
+    void should_return_bad_request_for_unknown_summary_field() {
+        orderService.retrieveOrderSummary(ORDER.getOrderId(), List.of("products"))
+                .as(StepVerifier::create)
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(ResponseStatusException.class)
+                        .hasMessage("400 BAD_REQUEST \"Unknown order summary field: products\""))
+                .verify();
+
+        verify(orderRepository, never()).findOrderSummary(any(), any());
+    }
+
+    @Test
+    void should_not_return_order_summary_if_order_does_not_exist() {
+        when(orderRepository.findOrderSummary(eq(ORDER.getOrderId()), any())).thenReturn(Mono.empty());
+
+        orderService.retrieveOrderSummary(ORDER.getOrderId(), null)
+                .as(StepVerifier::create)
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(ResponseStatusException.class)
+                        .hasMessage("404 NOT_FOUND \"Order not found\""))
+                .verify();
+    }
+
+    @Test
+    void should_list_orders_with_default_page_size() {
+        OrderSearchCriteria criteria = new OrderSearchCriteria("joedoe@test.com", null, null, null, null, null, null, null);
+        when(orderRepository.findOrders(criteria, OrderService.DEFAULT_PAGE_SIZE)).thenReturn(Flux.just(Order.builder().orderId(UUID.randomUUID()).build()));
+
+        orderService.listOrders(criteria)
+                .as(StepVerifier::create)
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void should_return_bad_request_for_incomplete_listing_cursor() {
+        orderService.listOrders(new OrderSearchCriteria(null, null, null, null, null, LocalDateTime.now(), null, null))
+                .as(StepVerifier::create)
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(ResponseStatusException.class)
+                        .hasMessage("400 BAD_REQUEST \"afterTime and afterId have to be provided together\""))
+                .verify();
+
+        verify(orderRepository, never()).findOrders(any(), anyInt());
+    }
+
     @Test
     void should_create_order() {
         UUID cartId = UUID.randomUUID();
-        UUID orderId = UUID.randomUUID();
+        Product product = SHOPPING_CART.getProducts().get(0);
         when(shoppingClient.getShoppingCart(cartId)).thenReturn(Mono.just(SHOPPING_CART));
-        when(orderRepository.save(any()))
-                .thenReturn(Mono.just(Order.builder()
-                        .orderId(orderId)
-                        .products(SHOPPING_CART.getProducts())
-                        .deliveryInfo(DELIVERY_INFO)
-                        .customerInfo(CUSTOMER_INFO)
-                        .isPaid(false)
-                        .build())
-                );
+        when(orderRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.<Order>getArgument(0)));
 
         orderService.createOrder(cartId, CUSTOMER_INFO, DELIVERY_INFO)
                 .as(StepVerifier::create)
                 .expectNextMatches(order -> {
                     assertThat(order.getOrderId()).isNotNull();
-                    assertThat(order.getProducts()).containsExactlyInAnyOrderElementsOf(SHOPPING_CART.getProducts());
+                    assertThat(order.getProducts()).isNull();
+                    assertThat(order.getOutbox()).extracting(OutboxEvent::getType).containsExactly(OrderEventType.CREATED);
+                    assertThat(order.getLines()).containsExactly(new OrderLine(product.getId(), product.getName(), product.getPrice(), 1, product.getCategories()));
                     assertThat(order.getCustomerInfo()).isEqualTo(CUSTOMER_INFO);
                     assertThat(order.getDeliveryInfo()).isEqualTo(DELIVERY_INFO);
                     assertThat(order.isPaid()).isFalse();
@@ -199,6 +361,80 @@ class OrderServiceTest {
                 .verify();
     }
 
+    @Test
+    void should_merge_repeated_products_into_single_order_line() {
+        UUID cartId = UUID.randomUUID();
+        Product product = SHOPPING_CART.getProducts().get(0);
+        ShoppingCart shoppingCart = ShoppingCart.builder()
+                .id(cartId)
+                .products(List.of(product, product, product))
+                .build();
+        when(shoppingClient.getShoppingCart(cartId)).thenReturn(Mono.just(shoppingCart));
+        when(orderRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.<Order>getArgument(0)));
+
+        orderService.createOrder(cartId, CUSTOMER_INFO, DELIVERY_INFO)
+                .as(StepVerifier::create)
+                .expectNextMatches(order -> order.getLines().size() == 1 && order.getLines().get(0).getQuantity() == 3)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void should_create_orders_in_batches() {
+        batchConfig.setBatchSize(2);
+        UUID missingCartId = UUID.randomUUID();
+        when(shoppingClient.getShoppingCart(SHOPPING_CART.getId())).thenReturn(Mono.just(SHOPPING_CART));
+        when(shoppingClient.getShoppingCart(missingCartId))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Shopping cart not found")));
+        when(orderRepository.bulkInsert(anyList(), anyBoolean())).thenAnswer(invocation -> Mono.just(BulkInsertResult.of(invocation.<List<Order>>getArgument(0).size())));
+
+        orderService.createOrders(Flux.just(
+                        new BatchOrderRequest(SHOPPING_CART.getId(), CUSTOMER_INFO, DELIVERY_INFO),
+                        new BatchOrderRequest(missingCartId, CUSTOMER_INFO, DELIVERY_INFO),
+                        new BatchOrderRequest(SHOPPING_CART.getId(), CUSTOMER_INFO, DELIVERY_INFO)))
+                .as(StepVerifier::create)
+                .expectNextMatches(result -> result.index() == 0 && result.status() == 200 && result.orderId() != null)
+                .expectNextMatches(result -> result.index() == 1 && result.status() == 404 && result.orderId() == null
+                        && result.error().equals("Shopping cart not found"))
+                .expectNextMatches(result -> result.index() == 2 && result.status() == 200 && result.orderId() != null)
+                .expectComplete()
+                .verify();
+
+        verify(orderRepository, times(2)).bulkInsert(argThat(orders -> orders.size() == 1
+                && orders.get(0).getCustomerInfo().equals(CUSTOMER_INFO)), eq(false));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void should_report_failed_batch_insert_for_every_order() {
+        when(shoppingClient.getShoppingCart(SHOPPING_CART.getId())).thenReturn(Mono.just(SHOPPING_CART));
+        when(orderRepository.bulkInsert(anyList(), anyBoolean())).thenReturn(Mono.error(new RuntimeException("Some error")));
+
+        orderService.createOrders(Flux.just(
+                        new BatchOrderRequest(SHOPPING_CART.getId(), CUSTOMER_INFO, DELIVERY_INFO),
+                        new BatchOrderRequest(SHOPPING_CART.getId(), CUSTOMER_INFO, DELIVERY_INFO)))
+                .as(StepVerifier::create)
+                .expectNextMatches(result -> result.status() == 500 && result.error().equals("Unexpected error occurred"))
+                .expectNextMatches(result -> result.status() == 500 && result.error().equals("Unexpected error occurred"))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void should_report_partially_failed_batch_insert_per_order() {
+        when(shoppingClient.getShoppingCart(SHOPPING_CART.getId())).thenReturn(Mono.just(SHOPPING_CART));
+        when(orderRepository.bulkInsert(anyList(), anyBoolean())).thenReturn(Mono.just(new BulkInsertResult(1, Set.of(1))));
+
+        orderService.createOrders(Flux.just(
+                        new BatchOrderRequest(SHOPPING_CART.getId(), CUSTOMER_INFO, DELIVERY_INFO),
+                        new BatchOrderRequest(SHOPPING_CART.getId(), CUSTOMER_INFO, DELIVERY_INFO)))
+                .as(StepVerifier::create)
+                .expectNextMatches(result -> result.index() == 0 && result.status() == 200 && result.orderId() != null)
+                .expectNextMatches(result -> result.index() == 1 && result.status() == 500 && result.orderId() == null)
+                .expectComplete()
+                .verify();
+    }
+
     @Test
     void should_return_error_if_fetching_cart_returned_error() {
         when(shoppingClient.getShoppingCart(ORDER.getOrderId()))
@@ -216,22 +452,21 @@ class OrderServiceTest {
 
     @Test
     void should_delete_order() {
-        when(orderRepository.findOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.just(ORDER));
-        when(orderRepository.deleteOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.empty());
+        when(orderRepository.deleteOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.just(1L));
 
         orderService.deleteOrder(ORDER.getOrderId())
                 .as(StepVerifier::create)
                 .expectComplete()
                 .verify();
 
-        verify(orderRepository, times(1)).findOrderByOrderId(ORDER.getOrderId());
+        verify(orderRepository, never()).findOrderByOrderId(any());
         verify(orderRepository, times(1)).deleteOrderByOrderId(ORDER.getOrderId());
+        verify(orderEventBus).publishLocal(OrderEventType.DELETED, ORDER.getOrderId(), null);
     }
 
     @Test
     void should_return_error_if_order_not_found() {
-        when(orderRepository.findOrderByOrderId(ORDER.getOrderId()))
-                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found")));
+        when(orderRepository.deleteOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.just(0L));
 
         orderService.deleteOrder(ORDER.getOrderId())
                 .as(StepVerifier::create)
@@ -242,13 +477,11 @@ class OrderServiceTest {
                 })
                 .verify();
 
-        verify(orderRepository, times(1)).findOrderByOrderId(ORDER.getOrderId());
-        verify(orderRepository, never()).deleteOrderByOrderId(ORDER.getOrderId());
+        verify(orderRepository, never()).findOrderByOrderId(any());
     }
 
     @Test
     void should_return_error_if_deletion_failed() {
-        when(orderRepository.findOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.just(ORDER));
         when(orderRepository.deleteOrderByOrderId(ORDER.getOrderId()))
                 .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Some error")));
 
@@ -261,19 +494,63 @@ class OrderServiceTest {
                 })
                 .verify();
 
-        verify(orderRepository, times(1)).findOrderByOrderId(ORDER.getOrderId());
         verify(orderRepository, times(1)).deleteOrderByOrderId(ORDER.getOrderId());
     }
 
+    @Test
+    void should_delete_orders_in_bulk() {
+        when(orderRepository.deleteByOrderIdIn(anyCollection())).thenReturn(Mono.just(1L));
+
+        orderService.deleteOrders(List.of(ORDER.getOrderId(), ORDER.getOrderId(), FINALIZED_ORDER.getOrderId()))
+                .as(StepVerifier::create)
+                .expectNext(new BulkDeleteResult(2, 1L))
+                .expectComplete()
+                .verify();
+
+        verify(orderRepository, times(1)).deleteByOrderIdIn(argThat(orderIds -> orderIds.size() == 2));
+        verify(orderEventBus, never()).publishLocal(eq(OrderEventType.DELETED), any(), any());
+    }
+
+    @Test
+    void should_announce_bulk_deleted_orders_when_all_existed() {
+        when(orderRepository.deleteByOrderIdIn(anyCollection())).thenReturn(Mono.just(2L));
+
+        orderService.deleteOrders(List.of(ORDER.getOrderId(), FINALIZED_ORDER.getOrderId())).block();
+
+        verify(orderEventBus).publishLocal(OrderEventType.DELETED, ORDER.getOrderId(), null);
+        verify(orderEventBus).publishLocal(OrderEventType.DELETED, FINALIZED_ORDER.getOrderId(), null);
+    }
+
     @Test
     void should_finalize_order() {
+        when(orderRepository.markPaid(eq(FINALIZED_ORDER.getOrderId()), any())).thenReturn(Mono.just(FINALIZED_ORDER));
+
+        orderService.finalizeOrder(FINALIZED_ORDER.getOrderId())
+                .as(StepVerifier::create)
+                .expectNextMatches(result -> {
+                    assertThat(result.order().isPaid()).isTrue();
+                    assertThat(result.changed()).isTrue();
+                    return true;
+                })
+                .expectComplete()
+                .verify();
+
+        verify(orderRepository, never()).findOrderByOrderId(any());
+        verify(orderRepository, never()).save(any());
+        verify(orderEventBus).publishLocal(OrderEventType.FINALIZED, FINALIZED_ORDER.getOrderId(), FINALIZED_ORDER);
+        verify(orderRepository).markPaid(eq(FINALIZED_ORDER.getOrderId()), argThat(event -> event.getType() == OrderEventType.FINALIZED));
+    }
+
+    @Test
+    void should_return_unchanged_order_if_already_finalized() {
+        when(orderRepository.markPaid(eq(FINALIZED_ORDER.getOrderId()), any())).thenReturn(Mono.empty());
         when(orderRepository.findOrderByOrderId(FINALIZED_ORDER.getOrderId())).thenReturn(Mono.just(FINALIZED_ORDER));
-        when(orderRepository.save(any())).thenReturn(Mono.just(FINALIZED_ORDER));
 
         orderService.finalizeOrder(FINALIZED_ORDER.getOrderId())
                 .as(StepVerifier::create)
-                .expectNextMatches(order -> {
-                    assertThat(order.isPaid()).isTrue();
+                .expectNextMatches(result -> {
+                    assertThat(result.order().isPaid()).isTrue();
+                    assertThat(result.changed()).isFalse();
                     return true;
                 })
                 .expectComplete()
@@ -282,8 +559,8 @@ class OrderServiceTest {
 
     @Test
     void should_return_error_if_order_not_found_for_finalize() {
-        when(orderRepository.findOrderByOrderId(ORDER.getOrderId()))
-                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found")));
+        when(orderRepository.markPaid(eq(ORDER.getOrderId()), any())).thenReturn(Mono.empty());
+        when(orderRepository.findOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.empty());
 
         orderService.finalizeOrder(ORDER.getOrderId())
                 .as(StepVerifier::create)
@@ -293,12 +570,12 @@ class OrderServiceTest {
                             .hasMessage("404 NOT_FOUND \"Order not found\"");
                 })
                 .verify();
+        assertThat(meterRegistry.get("order.service").tags("method", "finalizeOrder", "outcome", "not_found").timer().count()).isEqualTo(1);
     }
 
     @Test
     void should_return_error_if_updating_order_failed() {
-        when(orderRepository.findOrderByOrderId(ORDER.getOrderId())).thenReturn(Mono.just(ORDER));
-        when(orderRepository.save(any()))
+        when(orderRepository.markPaid(eq(ORDER.getOrderId()), any()))
                 .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Some error")));
 
         orderService.finalizeOrder(ORDER.getOrderId())
@@ -309,30 +586,82 @@ class OrderServiceTest {
                             .hasMessage("500 INTERNAL_SERVER_ERROR \"Some error\"");
                 })
                 .verify();
+        assertThat(meterRegistry.get("order.service").tags("method", "finalizeOrder", "outcome", "upstream_error").timer().count()).isEqualTo(1);
     }
 
     @Test
     void should_upload_orders() throws Exception {
-        String jsonContent = "[{\"orderId\":\"...\", ...}]";
-        List<Order> orders = List.of(
-                ORDER,
-                FINALIZED_ORDER
-        );
+        byte[] jsonContent = new ClassPathResource("orders1.json").getContentAsByteArray();
 
         DefaultDataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
-        when(filePart.content()).thenReturn(Flux.just(dataBufferFactory.wrap(jsonContent.getBytes(StandardCharsets.UTF_8))));
-
-        when(objectMapper.readValue(any(byte[].class), any(TypeReference.class))).thenReturn(orders);
+        when(filePart.content()).thenReturn(DataBufferUtils.read(new ByteArrayResource(jsonContent), dataBufferFactory, 512));
 
-        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(orderRepository.bulkInsert(anyList(), anyBoolean())).thenAnswer(invocation -> Mono.just(BulkInsertResult.of(invocation.<List<Order>>getArgument(0).size())));
 
-        orderService.uploadProducts(filePart)
+        orderService.uploadProducts(filePart, false)
                 .as(StepVerifier::create)
                 .expectSubscription()
-                .expectNextCount(orders.size())
+                .expectNextMatches(result -> result.batch() == 0 && result.orders() == 3 && result.inserted() == 3 && result.orderIds() == null)
                 .verifyComplete();
 
-        orders.forEach(order -> Mockito.verify(orderRepository).save(order));
+        verify(orderRepository, times(1)).bulkInsert(argThat(orders -> orders.stream()
+                .allMatch(order -> order.getOrderId() != null && order.getProducts() == null && order.getLines() != null)), eq(false));
+        verify(orderRepository, never()).save(any(Order.class));
+        assertThat(meterRegistry.get("order.service").tags("method", "uploadProducts", "outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("order.upload.orders").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("order.upload.size").summary().totalAmount()).isEqualTo(jsonContent.length);
+    }
+
+    @Test
+    void should_upload_orders_in_batches() throws Exception {
+        uploadConfig.setBatchSize(2);
+        uploadConfig.setOrdered(true);
+        byte[] jsonContent = new ClassPathResource("orders1.json").getContentAsByteArray();
+
+        DefaultDataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
+        when(filePart.content()).thenReturn(DataBufferUtils.read(new ByteArrayResource(jsonContent), dataBufferFactory, 512));
+        when(orderRepository.bulkInsert(anyList(), anyBoolean())).thenAnswer(invocation -> Mono.just(BulkInsertResult.of(invocation.<List<Order>>getArgument(0).size())));
+
+        orderService.uploadProducts(filePart, true)
+                .as(StepVerifier::create)
+                .expectNextMatches(result -> result.batch() == 0 && result.inserted() == 2 && result.orderIds().size() == 2)
+                .expectNextMatches(result -> result.batch() == 1 && result.inserted() == 1 && result.orderIds().size() == 1)
+                .verifyComplete();
+
+        verify(orderRepository, times(2)).bulkInsert(anyList(), eq(true));
+    }
+
+    @Test
+    void should_report_partially_inserted_upload_batch() throws Exception {
+        byte[] jsonContent = new ClassPathResource("orders1.json").getContentAsByteArray();
+
+        DefaultDataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
+        when(filePart.content()).thenReturn(DataBufferUtils.read(new ByteArrayResource(jsonContent), dataBufferFactory, 512));
+        when(orderRepository.bulkInsert(anyList(), anyBoolean())).thenReturn(Mono.just(new BulkInsertResult(2, Set.of(1))));
+
+        orderService.uploadProducts(filePart, true)
+                .as(StepVerifier::create)
+                .expectNextMatches(result -> result.batch() == 0 && result.orders() == 3 && result.inserted() == 2
+                        && result.orderIds().size() == 2)
+                .verifyComplete();
+
+        assertThat(meterRegistry.get("order.upload.orders").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_return_bad_request_for_invalid_upload() {
+        DefaultDataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
+        when(filePart.content()).thenReturn(Flux.just(dataBufferFactory.wrap("[{\"paid\": ".getBytes(StandardCharsets.UTF_8)),
+                dataBufferFactory.wrap("}]".getBytes(StandardCharsets.UTF_8))));
+
+        orderService.uploadProducts(filePart, false)
+                .as(StepVerifier::create)
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(ResponseStatusException.class)
+                        .hasMessage("400 BAD_REQUEST \"Uploaded file does not contain valid orders\""))
+                .verify();
+
+        verify(orderRepository, never()).bulkInsert(anyList(), anyBoolean());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.config.AppConfig;
+import com.example.orderservice.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderUploadParserTest {
+
+    private static final DefaultDataBufferFactory DATA_BUFFER_FACTORY = new DefaultDataBufferFactory();
+
+    private final OrderUploadParser parser = new OrderUploadParser(new ObjectMapper().registerModule(new JavaTimeModule()), new UploadConfig());
+
+    @Test
+    void should_emit_order_as_soon_as_its_object_is_complete() {
+        TestPublisher<DataBuffer> content = TestPublisher.create();
+
+        parser.parse(content.flux())
+                .as(StepVerifier::create)
+                .then(() -> content.next(buffer("[{\"paid\": tr"), buffer("ue, \"products\": []}, {\"pa")))
+                .expectNextMatches(Order::isPaid)
+                .then(() -> content.next(buffer("id\": false}]")))
+                .expectNextMatches(order -> !order.isPaid())
+                .then(content::complete)
+                .verifyComplete();
+    }
+
+    @Test
+    void should_parse_orders_uploaded_as_smile() throws Exception {
+        ObjectMapper smileMapper = AppConfig.smileMapper(new ObjectMapper().registerModule(new JavaTimeModule()));
+        byte[] smile = smileMapper.writeValueAsBytes(List.of(Order.builder().isPaid(true).build(), Order.builder().isPaid(false).build()));
+
+        parser.parse(Flux.just(buffer(Arrays.copyOfRange(smile, 0, 7)), buffer(Arrays.copyOfRange(smile, 7, smile.length))),
+                        MediaType.valueOf("application/x-jackson-smile"))
+                .as(StepVerifier::create)
+                .expectNextMatches(Order::isPaid)
+                .expectNextMatches(order -> !order.isPaid())
+                .verifyComplete();
+    }
+
+    @Test
+    void should_parse_orders_uploaded_as_json_part() {
+        parser.parse(Flux.just(buffer("[{\"paid\": true}, {\"paid\": false}]")), MediaType.APPLICATION_JSON)
+                .as(StepVerifier::create)
+                .expectNextMatches(Order::isPaid)
+                .expectNextMatches(order -> !order.isPaid())
+                .verifyComplete();
+    }
+
+    @Test
+    void should_reject_order_exceeding_max_size() {
+        UploadConfig config = new UploadConfig();
+        config.setMaxOrderSize(DataSize.ofBytes(16));
+        OrderUploadParser limitedParser = new OrderUploadParser(new ObjectMapper(), config);
+
+        limitedParser.parse(Flux.just(buffer("[{\"paid\": true, "), buffer("\"products\": [], "), buffer("\"customerInfo\": null}]")))
+                .as(StepVerifier::create)
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(ResponseStatusException.class)
+                        .hasMessage("413 PAYLOAD_TOO_LARGE \"Uploaded order exceeds the maximum allowed size\""))
+                .verify();
+    }
+
+    private static DataBuffer buffer(final String json) {
+        return buffer(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static DataBuffer buffer(final byte[] content) {
+        return DATA_BUFFER_FACTORY.wrap(content);
+    }
+}
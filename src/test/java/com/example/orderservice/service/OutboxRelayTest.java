@@ -0,0 +1,104 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderEventType;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.model.OutboxMessage;
+import com.example.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private static final OutboxEvent CREATED = new OutboxEvent(UUID.randomUUID(), OrderEventType.CREATED, LocalDateTime.now().minusMinutes(1));
+    private static final OutboxEvent FINALIZED = new OutboxEvent(UUID.randomUUID(), OrderEventType.FINALIZED, LocalDateTime.now());
+    private static final Order ORDER = Order.builder()
+            .orderId(UUID.randomUUID())
+            .outbox(List.of(CREATED, FINALIZED))
+            .build();
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OutboxConfig config;
+
+    private InMemoryOutboxSink outboxSink;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new OutboxConfig();
+        config.setBatchSize(1);
+        outboxSink = new InMemoryOutboxSink();
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(orderRepository, outboxSink, config, meterRegistry);
+    }
+
+    @Test
+    void should_deliver_events_in_order_and_remove_them_from_outbox() {
+        when(orderRepository.claimOrdersWithPendingOutbox(anyString(), eq(1), eq(config.getLeaseDuration()))).thenReturn(Flux.just(ORDER), Flux.empty());
+        when(orderRepository.removeOutboxEvents(anyString(), any())).thenReturn(Mono.empty());
+
+        outboxRelay.relayPendingEvents()
+                .as(StepVerifier::create)
+                .expectNext(2L)
+                .expectComplete()
+                .verify();
+
+        assertThat(outboxSink.getMessages()).extracting(OutboxMessage::eventId).containsExactly(CREATED.getEventId(), FINALIZED.getEventId());
+        assertThat(outboxSink.getMessages()).extracting(OutboxMessage::orderId).containsOnly(ORDER.getOrderId());
+        verify(orderRepository).removeOutboxEvents(anyString(), eq(Map.of(ORDER.getOrderId(), List.of(CREATED.getEventId(), FINALIZED.getEventId()))));
+        verify(orderRepository, never()).releaseOutboxClaim(anyString());
+        assertThat(meterRegistry.get("order.outbox.relayed").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("order.outbox.lag").timeGauge().value(TimeUnit.SECONDS)).isZero();
+    }
+
+    @Test
+    void should_keep_events_in_outbox_when_sink_fails() {
+        outboxSink.setFailing(true);
+        when(orderRepository.claimOrdersWithPendingOutbox(anyString(), eq(1), any())).thenReturn(Flux.just(ORDER));
+        when(orderRepository.releaseOutboxClaim(anyString())).thenReturn(Mono.empty());
+
+        outboxRelay.relayPendingEvents()
+                .as(StepVerifier::create)
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(orderRepository, never()).removeOutboxEvents(anyString(), any());
+        verify(orderRepository).releaseOutboxClaim(anyString());
+        assertThat(meterRegistry.get("order.outbox.failed").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("order.outbox.lag").timeGauge().value(TimeUnit.SECONDS)).isGreaterThanOrEqualTo(59.0);
+    }
+
+    @Test
+    void should_not_relay_when_disabled() {
+        config.setRelayEnabled(false);
+
+        outboxRelay.relayPendingEvents()
+                .as(StepVerifier::create)
+                .expectComplete()
+                .verify();
+
+        verify(orderRepository, never()).claimOrdersWithPendingOutbox(anyString(), anyInt(), any());
+    }
+}